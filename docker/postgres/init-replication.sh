@@ -0,0 +1,3 @@
+#!/bin/sh
+# Разрешаем streaming replication для локальной реплики (docker compose --profile replica)
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
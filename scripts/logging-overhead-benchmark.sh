@@ -0,0 +1,28 @@
+#!/usr/bin/env bash
+# Пропускная способность GET /orders/{id} под параллельной нагрузкой - для сравнения настроек логирования
+# (orders.logging.debug-sample-rate, orders.logging.slow-sql-sample-rate - захват SQL в RequestLoggingFilter).
+# Использование: scripts/logging-overhead-benchmark.sh <order id> [requests] [concurrency]
+#   прогнать на одной и той же базе дважды: приложение с debug-sample-rate=0.0 и, например, 0.01 (или
+#   до/после изменения) и сравнить requests_per_second; заказ должен существовать, include=items без UserService
+set -euo pipefail
+
+ORDER_ID="${1:?id of an existing order}"
+REQUESTS="${2:-5000}"
+CONCURRENCY="${3:-16}"
+PORT="${PORT:-8083}"
+URL="http://localhost:${PORT}/orders/${ORDER_ID}?include=items"
+HEADERS=(-H 'X-User-Id: 1' -H 'X-User-Roles: ROLE_ADMIN')
+
+# прогрев: JIT, пул соединений, near cache
+for _ in $(seq 1 200); do curl -s -o /dev/null "${HEADERS[@]}" "$URL"; done
+
+start=$(date +%s%N)
+seq 1 "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+    curl -s -o /dev/null -w '%{http_code}\n' "${HEADERS[@]}" "$URL" > /tmp/logging-benchmark-codes.txt
+end=$(date +%s%N)
+
+failed=$(grep -vc '^200$' /tmp/logging-benchmark-codes.txt || true)
+
+echo "requests,concurrency,failed,requests_per_second,wall_ms_per_request"
+awk -v r="$REQUESTS" -v c="$CONCURRENCY" -v f="$failed" -v w="$(( end - start ))" \
+    'BEGIN { printf "%d,%d,%d,%.1f,%.3f\n", r, c, f, r * 1000000000 / w, w / 1000000 / r }'
@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Размер ответа и CPU процесса на запрос для страницы из 200 заказов (GET /orders?size=200).
+# Использование: scripts/serialization-benchmark.sh <pid приложения> [requests] [label]
+#   запускать до и после изменения на одной и той же базе; include=items без похода в UserService.
+#   Строка с label дописывается в RESULTS (по умолчанию target/serialization-benchmark.csv) - before/after рядом
+# CPU берётся из /proc/<pid>/stat (utime + stime), поэтому только Linux.
+set -euo pipefail
+
+PID="${1:?pid of the running application}"
+REQUESTS="${2:-500}"
+LABEL="${3:-$(git rev-parse --short HEAD 2>/dev/null || echo run)}"
+RESULTS="${RESULTS:-target/serialization-benchmark.csv}"
+PORT="${PORT:-8083}"
+URL="http://localhost:${PORT}/orders?size=200&include=items"
+HEADERS=(-H 'X-User-Id: 1' -H 'X-User-Roles: ROLE_ADMIN')
+TICKS=$(getconf CLK_TCK)
+
+cpu_ticks() {
+    awk '{ print $14 + $15 }' "/proc/${PID}/stat"
+}
+
+# прогрев: JIT и кэши сериализаторов
+for _ in $(seq 1 50); do curl -s -o /dev/null "${HEADERS[@]}" "$URL"; done
+
+# не-200 (нет данных, 401, 500) - замер ничего не говорит о сериализации
+read -r status bytes < <(curl -s -o /dev/null -w '%{http_code} %{size_download}' "${HEADERS[@]}" "$URL")
+if [[ "$status" != "200" ]]; then
+    echo "GET $URL returned $status, expected 200" >&2
+    exit 1
+fi
+
+before=$(cpu_ticks)
+start=$(date +%s%N)
+for _ in $(seq 1 "$REQUESTS"); do curl -s -o /dev/null "${HEADERS[@]}" "$URL"; done
+end=$(date +%s%N)
+after=$(cpu_ticks)
+
+row=$(awk -v l="$LABEL" -v r="$REQUESTS" -v b="$bytes" -v c="$(( after - before ))" -v hz="$TICKS" -v w="$(( end - start ))" \
+    'BEGIN { printf "%s,%d,%d,%.2f,%.2f\n", l, r, b, c * 1000 / hz / r, w / 1000000 / r }')
+
+mkdir -p "$(dirname "$RESULTS")"
+[[ -s "$RESULTS" ]] || echo "label,requests,response_bytes,cpu_ms_per_request,wall_ms_per_request" > "$RESULTS"
+echo "$row" >> "$RESULTS"
+column -s, -t "$RESULTS" 2>/dev/null || cat "$RESULTS"
@@ -0,0 +1,38 @@
+#!/usr/bin/env bash
+# Замер холодного старта: time-to-ready (readiness UP) и латентность первого запроса.
+# Использование: scripts/startup-benchmark.sh [runs] [java-опции...]
+#   scripts/startup-benchmark.sh 5
+#   scripts/startup-benchmark.sh 5 -XX:SharedArchiveFile=target/extracted/app.jsa -Dspring.aot.enabled=true
+# Нужны запущенные postgres/kafka (docker compose up); LIQUIBASE_ENABLED=false исключает миграции из замера.
+set -euo pipefail
+
+RUNS="${1:-5}"
+shift || true
+JAR="${JAR:-target/OrderService-0.0.1-SNAPSHOT.jar}"
+PORT="${PORT:-8083}"
+BASE="http://localhost:${PORT}"
+
+echo "run,time_to_ready_ms,first_request_ms"
+
+for run in $(seq 1 "$RUNS"); do
+    start=$(date +%s%N)
+    java "$@" -jar "$JAR" --server.port="$PORT" > "target/startup-run-${run}.log" 2>&1 &
+    pid=$!
+
+    until curl -sf "${BASE}/actuator/health/readiness" > /dev/null; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "run ${run}: application exited, see target/startup-run-${run}.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    ready=$(date +%s%N)
+
+    first_request=$(curl -s -o /dev/null -w '%{time_total}' \
+        -H 'X-User-Id: 1' -H 'X-User-Roles: ROLE_USER' "${BASE}/items?size=1")
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+
+    echo "${run},$(( (ready - start) / 1000000 )),$(awk -v t="$first_request" 'BEGIN { printf "%.0f", t * 1000 }')"
+done
@@ -0,0 +1,55 @@
+package com.money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// mvn -Pjmh test-compile exec:exec: long-путь MoneyTotals.total против прежнего BigDecimal-расчёта
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MoneyTotalsBenchmark {
+
+    @Param({"1", "5", "50"})
+    private int lines;
+
+    private List<Line> order;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(45);
+        order = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            order.add(new Line(BigDecimal.valueOf(random.nextInt(100_000), 2), 1 + random.nextInt(10)));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal longMinorUnits() {
+        return MoneyTotals.total(order, Line::price, Line::quantity);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        return MoneyTotals.totalExact(order, Line::price, Line::quantity);
+    }
+
+    private record Line(BigDecimal price, int quantity) {}
+}
@@ -0,0 +1,45 @@
+package com.cache;
+
+import com.dtos.response.OrderDto;
+import com.dtos.response.OrderItemDto;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// DTO внутри не отдаётся наружу и не берётся по ссылке: ответы дальше меняют (фильтр полей, обогащение),
+// и общий экземпляр испортил бы кэш для всех следующих читателей
+public class CachedOrder {
+
+    @Getter
+    private final Long userId; // для проверки доступа без похода в БД
+
+    private final OrderDto order;
+
+    @Getter
+    private final long version;
+
+    public CachedOrder(Long userId, OrderDto order, long version) {
+        this.userId = userId;
+        this.order = copyOf(order, true);
+        this.version = version;
+    }
+
+    public OrderDto getOrder() {
+        return copyOf(order, true);
+    }
+
+    public OrderDto getOrderWithoutItems() {
+        return copyOf(order, false);
+    }
+
+    private static OrderDto copyOf(OrderDto order, boolean includeItems) {
+        List<OrderItemDto> items = includeItems && order.getOrderItems() != null
+                ? order.getOrderItems().stream()
+                        .map(item -> new OrderItemDto(item.getId(), item.getQuantity(), item.getOrderId(), item.getItemId()))
+                        .collect(Collectors.toCollection(ArrayList::new))
+                : null;
+        return new OrderDto(order.getId(), order.getStatus(), order.getTotalPrice(), order.getDeleted(), items);
+    }
+}
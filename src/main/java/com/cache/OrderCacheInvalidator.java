@@ -0,0 +1,86 @@
+package com.cache;
+
+import com.entities.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Log4j2
+public class OrderCacheInvalidator {
+
+    private final OrderNearCache orderNearCache;
+    private final KafkaTemplate<String, OrderInvalidationEvent> kafkaTemplate;
+    private final Timer invalidationLag;
+
+    @Value("${orders.cache.invalidation-topic:order-cache-invalidation}")
+    private String topic;
+
+    @Autowired
+    public OrderCacheInvalidator(OrderNearCache orderNearCache,
+                                 @Qualifier("orderInvalidationKafkaTemplate") KafkaTemplate<String, OrderInvalidationEvent> kafkaTemplate,
+                                 MeterRegistry meterRegistry) {
+        this.orderNearCache = orderNearCache;
+        this.kafkaTemplate = kafkaTemplate;
+        this.invalidationLag = Timer.builder("order.cache.invalidation.lag")
+                .description("Time from commit on the writing node to eviction on this node")
+                .register(meterRegistry);
+    }
+
+    // После коммита: version уже увеличен Hibernate при flush, а откатившаяся запись никого не инвалидирует
+    public void invalidateAfterCommit(Order order) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(order.getId(), OrderNearCache.versionOf(order.getVersion()));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(order.getId(), OrderNearCache.versionOf(order.getVersion()));
+            }
+        });
+    }
+
+    // Для массовых SQL-обновлений мимо JPA (StaleOrderSweeper): сущности нет, есть id и новый version
+    public void invalidateAfterCommit(Long orderId, long version) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(orderId, version);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(orderId, version);
+            }
+        });
+    }
+
+    private void publish(Long orderId, long version) {
+        orderNearCache.invalidate(orderId, version);
+
+        OrderInvalidationEvent event = new OrderInvalidationEvent(orderId, version, System.currentTimeMillis());
+        kafkaTemplate.send(topic, orderId.toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) log.warn("Failed to broadcast invalidation of order {}: {}", orderId, ex.getMessage());
+                });
+    }
+
+    // Своя группа на каждую ноду -> каждое сообщение получают все реплики
+    @KafkaListener(topics = "${orders.cache.invalidation-topic:order-cache-invalidation}",
+            groupId = "order-cache-#{T(java.util.UUID).randomUUID()}",
+            containerFactory = "orderInvalidationListenerFactory")
+    public void onInvalidation(OrderInvalidationEvent event) {
+        orderNearCache.invalidate(event.getOrderId(), event.getVersion());
+        invalidationLag.record(Math.max(0, System.currentTimeMillis() - event.getSentAtMillis()), TimeUnit.MILLISECONDS);
+    }
+}
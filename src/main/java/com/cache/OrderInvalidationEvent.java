@@ -0,0 +1,17 @@
+package com.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderInvalidationEvent {
+
+    private Long orderId;
+
+    private long version; // версия заказа после записи
+
+    private long sentAtMillis;
+}
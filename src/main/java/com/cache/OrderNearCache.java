@@ -0,0 +1,73 @@
+package com.cache;
+
+import com.dtos.response.OrderDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class OrderNearCache {
+
+    private final Cache<Long, CachedOrder> orders;
+
+    // Последняя версия из инвалидаций: не даёт читателю, загрузившему заказ до записи, положить его обратно
+    private final Cache<Long, Long> invalidatedVersions;
+
+    private final Counter rejectedStalePuts;
+
+    @Autowired
+    public OrderNearCache(MeterRegistry meterRegistry,
+                          @Value("${orders.cache.max-size:10000}") long maxSize,
+                          @Value("${orders.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.orders = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.invalidatedVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, orders, "orderNearCache");
+        this.rejectedStalePuts = Counter.builder("order.cache.stale.rejected")
+                .description("Puts ignored because a newer version was already invalidated")
+                .register(meterRegistry);
+    }
+
+    // Версия - счётчик orders.version из БД: ещё не сохранённый заказ считается нулевой версией
+    public static long versionOf(Long version) {
+        return version == null ? 0 : version;
+    }
+
+    public CachedOrder get(Long id) {
+        return orders.getIfPresent(id);
+    }
+
+    public void put(Long userId, OrderDto order, long version) {
+        orders.asMap().compute(order.getId(), (id, current) -> {
+            Long invalidated = invalidatedVersions.getIfPresent(id);
+            if (invalidated != null && version < invalidated) {
+                rejectedStalePuts.increment();
+                return current;
+            }
+            if (current != null && current.getVersion() > version) {
+                return current;
+            }
+            return new CachedOrder(userId, order, version);
+        });
+    }
+
+    // Вытесняем только то, что старше пришедшей версии: запоздавший broadcast не трогает свежие данные
+    public void invalidate(Long id, long version) {
+        invalidatedVersions.asMap().merge(id, version, Math::max);
+        orders.asMap().computeIfPresent(id, (key, current) -> current.getVersion() < version ? null : current);
+    }
+}
@@ -15,6 +15,17 @@ public class AccessChecker {
         }
     }
 
+    // USER без ADMIN видит только свои заказы: владелец заказа заранее известен = requester
+    public boolean isOwnerOnly(Set<String> roles) {
+        return roles != null && roles.contains("ROLE_USER") && !roles.contains("ROLE_ADMIN");
+    }
+
+    // Без исключения: для пакетного чтения, где чужие заказы просто пропускаются
+    public boolean hasUserAccess(Long targetUserId, Long requesterId, Set<String> roles) {
+        if (roles == null) return false;
+        return roles.contains("ROLE_ADMIN") || (roles.contains("ROLE_USER") && targetUserId.equals(requesterId));
+    }
+
     public void checkUserAccess(Long targetUserId, Long requesterId, Set<String> roles) {
 
         if (roles == null) {
@@ -0,0 +1,46 @@
+package com.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Аналог subtask из StructuredTaskScope (в Java 21 он ещё preview): fork -> join/cancel в пределах одного метода
+public final class Fork<T> {
+
+    private final Future<T> future;
+
+    private Fork(Future<T> future) {
+        this.future = future;
+    }
+
+    public static <T> Fork<T> of(ExecutorService executor, Callable<T> task) {
+        return new Fork<>(executor.submit(task));
+    }
+
+    public T join() {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for forked call", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            if (ex.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    // Подзадача уже упала -> её ошибка сразу, не дожидаясь остальной работы; иначе ничего не ждём
+    public void throwIfFailed() {
+        if (future.state() == Future.State.FAILED) {
+            join();
+        }
+    }
+
+    // Прерывает поток подзадачи (WebClient.block() на прерывание отменяет подписку); после join - no-op
+    public void cancel() {
+        future.cancel(true);
+    }
+}
@@ -0,0 +1,101 @@
+package com.concurrent;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Задачи с одним ключом идут по порядку на одном потоке (страйп = hash(key) % stripes), с разными - параллельно.
+// execute никогда не блокирует: очередь страйпа не ограничена, а queueCapacity - порог, после которого
+// отправитель сам перестаёт подавать задачи (true из execute) и ждёт whenDrained
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor[] stripes;
+    // поставлено, но ещё не завершено - по страйпам и всего
+    private final AtomicInteger[] stripeLoad;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Runnable>[] drainCallbacks;
+    private final int queueCapacity;
+
+    @SuppressWarnings("unchecked")
+    public KeyOrderedExecutor(String name, int stripeCount, int queueCapacity) {
+        if (stripeCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("stripeCount and queueCapacity must be positive");
+        }
+        this.queueCapacity = queueCapacity;
+        this.stripes = new ThreadPoolExecutor[stripeCount];
+        this.stripeLoad = new AtomicInteger[stripeCount];
+        this.drainCallbacks = new Queue[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    Thread.ofPlatform().name(name + "-" + i).factory());
+            stripeLoad[i] = new AtomicInteger();
+            drainCallbacks[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    // true - страйп ключа заполнен до queueCapacity, новые задачи для него лучше придержать
+    public boolean execute(Object key, Runnable task) {
+        int stripe = stripeOf(key);
+        int load = stripeLoad[stripe].incrementAndGet();
+        inFlight.incrementAndGet();
+        try {
+            stripes[stripe].execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    inFlight.decrementAndGet();
+                    if (stripeLoad[stripe].decrementAndGet() <= queueCapacity / 2) {
+                        runDrainCallbacks(stripe);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            inFlight.decrementAndGet();
+            stripeLoad[stripe].decrementAndGet();
+            throw ex;
+        }
+        return load >= queueCapacity;
+    }
+
+    // callback один раз, когда в страйпе ключа останется не больше половины queueCapacity
+    // (сразу, если уже так). Вызывается на потоке страйпа - callback должен быть коротким
+    public void whenDrained(Object key, Runnable callback) {
+        int stripe = stripeOf(key);
+        drainCallbacks[stripe].add(callback);
+        // страйп мог опустеть между execute и add: тогда его поток колбэк уже не увидит
+        if (stripeLoad[stripe].get() <= queueCapacity / 2) {
+            runDrainCallbacks(stripe);
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdown();
+        }
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private int stripeOf(Object key) {
+        return Math.floorMod(Objects.hashCode(key), stripes.length);
+    }
+
+    private void runDrainCallbacks(int stripe) {
+        Runnable callback;
+        while ((callback = drainCallbacks[stripe].poll()) != null) {
+            callback.run();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // @JsonFilter без явного фильтра (обычные ответы без ?fields=) -> сериализуем все поля
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer defaultFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    // Геттеры DTO через LambdaMetafactory, а не Method.invoke; Boot регистрирует Module-бины в ObjectMapper сам
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Module pageModule() {
+        SimpleModule module = new SimpleModule("PageModule");
+        module.addSerializer(new PageJsonSerializer());
+        return module;
+    }
+}
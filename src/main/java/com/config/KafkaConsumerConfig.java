@@ -1,14 +1,17 @@
 package com.config;
 
+import com.concurrent.KeyOrderedExecutor;
 import com.event.CreatePaymentEvent;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 import java.util.HashMap;
@@ -36,6 +39,17 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, CreatePaymentEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        // Обработка уходит в paymentEventExecutor, ack приходят не по порядку:
+        // asyncAcks коммитит offset только до последней непрерывно завершённой записи партиции
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
         return factory;
     }
+
+    // Один ключ (orderId) - один страйп: события заказа по порядку, разные заказы партиции параллельно
+    @Bean(destroyMethod = "close")
+    public KeyOrderedExecutor paymentEventExecutor(@Value("${orders.payments.workers:8}") int workers,
+                                                   @Value("${orders.payments.worker-queue-capacity:100}") int queueCapacity) {
+        return new KeyOrderedExecutor("payment-event", workers, queueCapacity);
+    }
 }
@@ -0,0 +1,33 @@
+package com.config;
+
+import com.dtos.response.EstimatedPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+
+// Вместо PageImpl целиком (pageable, sort, first/last, empty...) - только content и 4 числа с прежними именами
+public class PageJsonSerializer extends StdSerializer<Page<?>> {
+
+    @SuppressWarnings("unchecked")
+    public PageJsonSerializer() {
+        super((Class<Page<?>>) (Class<?>) Page.class);
+    }
+
+    @Override
+    public void serialize(Page<?> page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        // через provider: @JsonFilter (?fields=) и кэш сериализаторов элементов работают как раньше
+        provider.defaultSerializeField("content", page.getContent(), gen);
+        gen.writeNumberField("number", page.getNumber());
+        gen.writeNumberField("size", page.getSize());
+        gen.writeNumberField("totalElements", page.getTotalElements());
+        gen.writeNumberField("totalPages", page.getTotalPages());
+        if (page instanceof EstimatedPage<?> estimatedPage) {
+            gen.writeBooleanField("estimated", estimatedPage.isEstimated());
+        }
+        gen.writeEndObject();
+    }
+}
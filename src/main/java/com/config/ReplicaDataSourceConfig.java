@@ -0,0 +1,75 @@
+package com.config;
+
+import com.routing.ReplicaNode;
+import com.routing.ReplicaRoutingDataSource;
+import com.routing.ReplicaSelector;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "orders.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaSelector replicaSelector(DataSourceProperties properties,
+                                           @Value("${orders.datasource.replica.urls}") String[] urls,
+                                           @Value("${orders.datasource.replica.max-lag-ms:5000}") long maxLagMs,
+                                           @Value("${orders.datasource.replica.connection-timeout-ms:1000}") long connectionTimeoutMs) {
+        List<ReplicaNode> replicas = new ArrayList<>();
+
+        for (int i = 0; i < urls.length; i++) {
+            String key = "replica-" + i;
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.getDriverClassName())
+                    .url(urls[i].trim())
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            replica.setPoolName(key);
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(connectionTimeoutMs);
+            replicas.add(new ReplicaNode(key, replica));
+        }
+
+        return new ReplicaSelector(replicas, maxLagMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaSelector replicaSelector) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        replicaSelector.getReplicas().forEach(node -> targets.put(node.getKey(), node.getDataSource()));
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(replicaSelector);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+
+        // соединение берётся на первом запросе, когда readOnly транзакции уже известен
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
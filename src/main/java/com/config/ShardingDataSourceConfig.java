@@ -0,0 +1,74 @@
+package com.config;
+
+import com.routing.ShardRouter;
+import com.routing.ShardRoutingDataSource;
+import com.routing.ShardedSpringLiquibase;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Заказы по нескольким PostgreSQL: пул на шард, маршрутизация по ShardContext, Liquibase на каждый шард
+@Configuration
+@ConditionalOnProperty(name = "orders.sharding.enabled", havingValue = "true")
+public class ShardingDataSourceConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties, MeterRegistry meterRegistry,
+                                                         @Value("${orders.sharding.urls}") String[] urls,
+                                                         @Value("${orders.sharding.pool-size:10}") int poolSize,
+                                                         @Value("${orders.datasource.replica.enabled:false}") boolean replicasEnabled) {
+        // реплики маршрутизируются по readOnly поверх одного primary - с шардами их не совместить
+        if (replicasEnabled) {
+            throw new IllegalStateException("orders.sharding.enabled and orders.datasource.replica.enabled cannot be used together");
+        }
+
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.getDriverClassName())
+                    .url(urls[i].trim())
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            shard.setPoolName("shard-" + i);
+            shard.setMaximumPoolSize(poolSize);
+            // пулы не бины -> hikaricp.* метрики регистрируем сами
+            shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        // соединение берётся на первом запросе, когда шард транзакции уже привязан
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardedSpringLiquibase liquibase(ShardRoutingDataSource shardRoutingDataSource, ShardRouter shardRouter,
+                                            @Value("${spring.liquibase.change-log}") String changeLog,
+                                            @Value("${spring.liquibase.enabled:true}") boolean enabled,
+                                            @Value("${spring.liquibase.drop-first:false}") boolean dropFirst) {
+        ShardedSpringLiquibase liquibase = new ShardedSpringLiquibase(shardRoutingDataSource.getShards(),
+                shardRouter.getIdSlots(), shardRouter.getLegacyMaxOrderId(), shardRouter.getLegacyMaxOrderItemId());
+        liquibase.setChangeLog(changeLog);
+        liquibase.setShouldRun(enabled);
+        liquibase.setDropFirst(dropFirst);
+        return liquibase;
+    }
+}
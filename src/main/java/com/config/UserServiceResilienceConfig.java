@@ -0,0 +1,31 @@
+package com.config;
+
+import com.services.UserServiceClient;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+// Gauge'и bulkhead (available/max concurrent calls) Resilience4j публикует сам, здесь - счётчик отказов
+@Configuration
+@RequiredArgsConstructor
+public class UserServiceResilienceConfig {
+
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void registerRejectionCounters() {
+        for (String name : List.of(UserServiceClient.INTERACTIVE, UserServiceClient.ADMIN_LIST)) {
+            Counter rejected = Counter.builder("user.service.bulkhead.rejected")
+                    .description("Calls to UserService that got the fallback because the bulkhead was full")
+                    .tag("bulkhead", name)
+                    .register(meterRegistry);
+            bulkheadRegistry.bulkhead(name).getEventPublisher().onCallRejected(event -> rejected.increment());
+        }
+    }
+}
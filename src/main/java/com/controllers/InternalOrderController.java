@@ -0,0 +1,82 @@
+package com.controllers;
+
+import com.dtos.request.OrderIdsRequest;
+import com.dtos.request.OrderReadOptions;
+import com.dtos.request.OrderStatusUpdateDto;
+import com.dtos.response.OrderDto;
+import com.services.OrderService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Set;
+
+// Для payment/notification: CBOR вместо JSON, один сервисный токен вместо X-User-Id/X-User-Roles на каждый вызов.
+// Данные пользователя из UserService здесь не подтягиваются
+@RestController
+@RequestMapping(path = "/internal/orders", produces = MediaType.APPLICATION_CBOR_VALUE)
+@ConditionalOnProperty(name = "orders.internal.enabled", havingValue = "true")
+public class InternalOrderController {
+
+    public static final String TOKEN_HEADER = "X-Internal-Token";
+
+    private static final Long SERVICE_USER_ID = 0L;
+    private static final Set<String> SERVICE_ROLES = Set.of("ROLE_ADMIN");
+    private static final OrderReadOptions ORDER_ONLY = new OrderReadOptions(false, true);
+
+    private final OrderService orderService;
+    private final byte[] token;
+
+    @Autowired
+    public InternalOrderController(OrderService orderService, @Value("${orders.internal.token:}") String token) {
+        if (token.isBlank()) {
+            throw new IllegalStateException("orders.internal.token must be set when the internal API is enabled");
+        }
+        this.orderService = orderService;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<OrderDto> getOrder(
+            @PathVariable Long id,
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token
+    ) {
+        checkToken(token);
+        return ResponseEntity.ok(orderService.getOrderById(id, SERVICE_USER_ID, SERVICE_ROLES, ORDER_ONLY).getOrder());
+    }
+
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<List<OrderDto>> getOrders(
+            @RequestBody @Valid OrderIdsRequest request,
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token
+    ) {
+        checkToken(token);
+        return ResponseEntity.ok(orderService.getOrdersByIds(request.getIds(), SERVICE_USER_ID, SERVICE_ROLES, ORDER_ONLY));
+    }
+
+    @PutMapping(path = "/{id}/status", consumes = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<OrderDto> updateOrderStatus(
+            @PathVariable Long id,
+            @RequestBody @Valid OrderStatusUpdateDto dto,
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token
+    ) {
+        checkToken(token);
+        return ResponseEntity.ok(orderService.updateStatusInternal(id, dto.getStatus()));
+    }
+
+    // нет токена или чужой -> 401 (а не 500 из общего обработчика)
+    private void checkToken(String provided) {
+        if (provided == null || !MessageDigest.isEqual(token, provided.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid internal token");
+        }
+    }
+}
@@ -2,15 +2,22 @@ package com.controllers;
 
 import com.dtos.request.ItemCreateUpdateDto;
 import com.dtos.response.ItemDto;
+import com.dtos.response.OrderItemDto;
+import com.dtos.response.TrendingItemDto;
 import com.services.ItemService;
+import com.trending.TrendingWindow;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -30,9 +37,13 @@ public class ItemController {
     public ResponseEntity<ItemDto> getItem(
             @PathVariable Long id,
             @RequestHeader("X-User-Id") Long requesterId,
-            @RequestHeader("X-User-Roles") String rolesHeader
+            @RequestHeader("X-User-Roles") String rolesHeader,
+            WebRequest request
     ) {
         Set<String> roles = parseRoles(rolesHeader);
+        if (request.checkNotModified(itemService.getItemETag(id, requesterId, roles))) {
+            return null;
+        }
         return ResponseEntity.ok(itemService.getItem(id, requesterId, roles));
     }
 
@@ -46,6 +57,29 @@ public class ItemController {
         return ResponseEntity.ok(itemService.getAllItems(pageable, requesterId, roles));
     }
 
+    // ?window=hour|day, quantity - оценка сверху (count-min sketch) по этой ноде
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingItemDto>> getTrendingItems(
+            @RequestParam(defaultValue = "hour") String window,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader("X-User-Id") Long requesterId,
+            @RequestHeader("X-User-Roles") String rolesHeader
+    ) {
+        Set<String> roles = parseRoles(rolesHeader);
+        TrendingWindow trendingWindow = TrendingWindow.valueOf(window.trim().toUpperCase(Locale.ROOT));
+        return ResponseEntity.ok(itemService.getTrendingItems(trendingWindow, limit, requesterId, roles));
+    }
+
+    @GetMapping("/{id}/orderItems")
+    public ResponseEntity<Page<OrderItemDto>> getItemOrderItems(
+            @PathVariable Long id,
+            @PageableDefault Pageable pageable,
+            @RequestHeader("X-User-Roles") String rolesHeader
+    ) {
+        Set<String> roles = parseRoles(rolesHeader);
+        return ResponseEntity.ok(itemService.getItemOrderItems(id, pageable, roles));
+    }
+
     @PostMapping
     public ResponseEntity<ItemDto> createItem(
             @RequestBody @Valid ItemCreateUpdateDto dto,
@@ -1,18 +1,34 @@
 package com.controllers;
 
 import com.dtos.request.OrderCreateUpdateDto;
+import com.dtos.request.OrderIdsRequest;
+import com.dtos.request.OrderReadOptions;
+import com.dtos.request.OrderSearchFilter;
 import com.dtos.request.OrderStatusUpdateDto;
+import com.dtos.response.OrderChangesResponse;
+import com.dtos.response.OrderDto;
+import com.dtos.response.OrderLookupResult;
 import com.dtos.response.OrderWithUserDto;
+import com.dtos.response.VersionedOrder;
+import com.etag.ETags;
 import com.enums.OrderStatus;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.routing.ShardRouter;
+import com.services.IdempotencyService;
 import com.services.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -25,46 +41,116 @@ import java.util.stream.Collectors;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final ShardRouter shardRouter;
 
     private Set<String> parseRoles(String rolesHeader) {
         if (rolesHeader == null || rolesHeader.isBlank()) return Set.of();
         return Arrays.stream(rolesHeader.split(",")).map(String::trim).collect(Collectors.toSet());
     }
 
+    private MappingJacksonValue withFields(Object body, Set<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null) {
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(OrderDto.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        }
+        return value;
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<OrderWithUserDto> getOrder(
+    public ResponseEntity<MappingJacksonValue> getOrder(
             @PathVariable Long id,
+            @RequestParam(required = false) Set<String> include,
+            @RequestParam(required = false) Set<String> fields,
             @RequestHeader("X-User-Id") Long requesterId,
-            @RequestHeader("X-User-Roles") String rolesHeader
+            @RequestHeader("X-User-Roles") String rolesHeader,
+            WebRequest request
     ) {
         Set<String> roles = parseRoles(rolesHeader);
-        return ResponseEntity.ok(orderService.getOrderById(id, requesterId, roles));
+        OrderReadOptions options = OrderReadOptions.of(include, fields);
+        String selector = ETags.selectorOf(include, fields);
+        // If-None-Match совпал -> 304 по одной версии, без загрузки заказа, UserService и сериализации
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(ETags.of(orderService.getOrderVersion(id, requesterId, roles), selector))) {
+            return null;
+        }
+        // иначе один запрос: ETag - от версии, с которой прочитан отданный заказ
+        VersionedOrder loaded = orderService.getVersionedOrderById(id, requesterId, roles, options);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(loaded.getVersion(), selector))
+                .body(withFields(loaded.getOrder(), fields));
     }
 
     @GetMapping
-    public ResponseEntity<Page<OrderWithUserDto>> getAllOrders(
+    public ResponseEntity<MappingJacksonValue> getAllOrders(
             @RequestParam(required = false) List<OrderStatus> statuses,
             @RequestParam(required = false) LocalDateTime start,
             @RequestParam(required = false) LocalDateTime end,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long itemId,
+            @RequestParam(required = false) BigDecimal minTotal,
+            @RequestParam(required = false) BigDecimal maxTotal,
+            @RequestParam(defaultValue = "false") boolean estimate,
+            @RequestParam(required = false) Set<String> include,
+            @RequestParam(required = false) Set<String> fields,
             @PageableDefault Pageable pageable,
             @RequestHeader("X-User-Id") Long requesterId,
             @RequestHeader("X-User-Roles") String rolesHeader
     ) {
         Set<String> roles = parseRoles(rolesHeader);
-        return ResponseEntity.ok(
-                orderService.getAllOrders(statuses, start, end, pageable, requesterId, roles)
-        );
+        OrderReadOptions options = OrderReadOptions.of(include, fields);
+        OrderSearchFilter filter = OrderSearchFilter.builder()
+                .statuses(statuses)
+                .start(start)
+                .end(end)
+                .userId(userId)
+                .itemId(itemId)
+                .minTotal(minTotal)
+                .maxTotal(maxTotal)
+                .estimate(estimate)
+                .build();
+        Page<OrderWithUserDto> page = orderService.getAllOrders(filter, pageable, requesterId, roles, options);
+        return ResponseEntity.ok(withFields(page, fields));
+    }
+
+    // ?since= - nextCursor из прошлого ответа (пусто = с начала); созданные, изменённые и удалённые заказы
+    @GetMapping("/changes")
+    public ResponseEntity<OrderChangesResponse> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestHeader("X-User-Roles") String rolesHeader
+    ) {
+        Set<String> roles = parseRoles(rolesHeader);
+        return ResponseEntity.ok(orderService.getChanges(since, limit, roles));
+    }
+
+    // Вместо N вызовов GET /orders/{id}: ответ на каждый id в порядке запроса, включая NOT_FOUND (для чужих тоже)
+    @PostMapping("/lookup")
+    public ResponseEntity<MappingJacksonValue> lookupOrders(
+            @RequestBody @Valid OrderIdsRequest request,
+            @RequestParam(required = false) Set<String> include,
+            @RequestParam(required = false) Set<String> fields,
+            @RequestHeader("X-User-Id") Long requesterId,
+            @RequestHeader("X-User-Roles") String rolesHeader
+    ) {
+        Set<String> roles = parseRoles(rolesHeader);
+        OrderReadOptions options = OrderReadOptions.of(include, fields);
+        List<OrderLookupResult> results = orderService.lookupOrders(request.getIds(), requesterId, roles, options);
+        return ResponseEntity.ok(withFields(results, fields));
     }
 
     @PostMapping
     public ResponseEntity<OrderWithUserDto> createOrder(
             @RequestBody @Valid OrderCreateUpdateDto dto,
             @RequestHeader("X-User-Id") Long requesterId,
-            @RequestHeader("X-User-Roles") String rolesHeader
+            @RequestHeader("X-User-Roles") String rolesHeader,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
     ) {
         Set<String> roles = parseRoles(rolesHeader);
-        return ResponseEntity.status(201)
-                .body(orderService.createOrder(dto, requesterId, roles));
+        return idempotencyService.execute(idempotencyKey, "POST /orders", requesterId,
+                shardRouter.shardOfUser(requesterId), dto, OrderWithUserDto.class,
+                () -> ResponseEntity.status(201).body(orderService.createOrder(dto, requesterId, roles)));
     }
 
     @PutMapping("/{id}")
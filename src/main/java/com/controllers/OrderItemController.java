@@ -2,6 +2,8 @@ package com.controllers;
 
 import com.dtos.request.OrderItemCreateUpdateDto;
 import com.dtos.response.OrderItemDto;
+import com.routing.ShardRouter;
+import com.services.IdempotencyService;
 import com.services.OrderItemService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +12,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Arrays;
 import java.util.Set;
@@ -21,6 +24,8 @@ import java.util.stream.Collectors;
 public class OrderItemController {
 
     private final OrderItemService service;
+    private final IdempotencyService idempotencyService;
+    private final ShardRouter shardRouter;
 
     private Set<String> parseRoles(String rolesHeader) {
         if (rolesHeader == null || rolesHeader.isBlank()) return Set.of();
@@ -31,9 +36,13 @@ public class OrderItemController {
     public ResponseEntity<OrderItemDto> getOrderItem(
             @PathVariable Long id,
             @RequestHeader("X-User-Id") Long requesterId,
-            @RequestHeader("X-User-Roles") String rolesHeader
+            @RequestHeader("X-User-Roles") String rolesHeader,
+            WebRequest request
     ) {
         Set<String> roles = parseRoles(rolesHeader);
+        if (request.checkNotModified(service.getOrderItemETag(id, requesterId, roles))) {
+            return null;
+        }
         return ResponseEntity.ok(service.getOrderItemById(id, requesterId, roles));
     }
 
@@ -50,10 +59,13 @@ public class OrderItemController {
     public ResponseEntity<OrderItemDto> createOrderItem(
             @RequestBody @Valid OrderItemCreateUpdateDto dto,
             @RequestHeader("X-User-Id") Long requesterId,
-            @RequestHeader("X-User-Roles") String rolesHeader
+            @RequestHeader("X-User-Roles") String rolesHeader,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
     ) {
         Set<String> roles = parseRoles(rolesHeader);
-        return ResponseEntity.status(201).body(service.createOrderItem(dto, requesterId, roles));
+        return idempotencyService.execute(idempotencyKey, "POST /orderItems", requesterId,
+                shardRouter.shardOfOrder(dto.getOrderId()), dto, OrderItemDto.class,
+                () -> ResponseEntity.status(201).body(service.createOrderItem(dto, requesterId, roles)));
     }
 
     @PutMapping("/{id}")
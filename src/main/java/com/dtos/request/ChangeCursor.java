@@ -0,0 +1,62 @@
+package com.dtos.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Позиция в ленте изменений: (change_xid, id) последней отданной строки - своя у каждого шарда,
+// xid в разных БД между собой не сравнимы. Для клиента - непрозрачная строка
+@Getter
+@AllArgsConstructor
+public class ChangeCursor {
+
+    public static final ChangeCursor START = new ChangeCursor(List.of());
+
+    private final List<Position> positions;
+
+    public record Position(long changeXid, long id) {
+        public static final Position START = new Position(0L, 0L);
+    }
+
+    public static ChangeCursor parse(String value) {
+        if (value == null || value.isBlank()) return START;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            List<Position> positions = new ArrayList<>();
+            for (String position : decoded.split(";")) {
+                int separator = position.indexOf(':');
+                positions.add(new Position(Long.parseLong(position.substring(0, separator)),
+                        Long.parseLong(position.substring(separator + 1))));
+            }
+            return new ChangeCursor(List.copyOf(positions));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    // шард, которого в курсоре нет (добавили после выдачи), читается с начала
+    public Position positionOf(int shard) {
+        return shard < positions.size() ? positions.get(shard) : Position.START;
+    }
+
+    public ChangeCursor with(int shard, Position position) {
+        List<Position> next = new ArrayList<>(positions);
+        while (next.size() <= shard) {
+            next.add(Position.START);
+        }
+        next.set(shard, position);
+        return new ChangeCursor(List.copyOf(next));
+    }
+
+    public String encode() {
+        String raw = positions.stream()
+                .map(position -> position.changeXid() + ":" + position.id())
+                .collect(Collectors.joining(";"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,12 @@
+package com.dtos.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderIdsRequest {
+    @NotEmpty
+    private List<Long> ids;
+}
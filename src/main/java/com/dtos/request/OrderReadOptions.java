@@ -0,0 +1,47 @@
+package com.dtos.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// ?include=user,items и ?fields=... : что реально грузить для ответа по заказу
+@Getter
+@AllArgsConstructor
+public class OrderReadOptions {
+
+    public static final OrderReadOptions FULL = new OrderReadOptions(true, true);
+
+    private static final Set<String> INCLUDES = Set.of("user", "items");
+    private static final Set<String> FIELDS = Set.of("id", "status", "totalPrice", "deleted", "orderItems");
+
+    private final boolean includeUser;
+    private final boolean includeItems;
+
+    public static OrderReadOptions of(Set<String> include, Set<String> fields) {
+        include = normalize(include);
+        fields = normalize(fields);
+
+        if (include != null && !INCLUDES.containsAll(include)) {
+            throw new IllegalArgumentException("Unknown include, allowed: " + INCLUDES);
+        }
+        if (fields != null && !FIELDS.containsAll(fields)) {
+            throw new IllegalArgumentException("Unknown fields, allowed: " + FIELDS);
+        }
+
+        boolean user = include == null || include.contains("user");
+        boolean items = (include == null || include.contains("items"))
+                && (fields == null || fields.contains("orderItems"));
+        return new OrderReadOptions(user, items);
+    }
+
+    // ?include= (пустое значение) -> пустое множество, а не [""]
+    private static Set<String> normalize(Set<String> values) {
+        if (values == null) return null;
+        return values.stream()
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,38 @@
+package com.dtos.request;
+
+import com.enums.OrderStatus;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Фильтры GET /orders; estimate=true -> totalElements по оценке планировщика, а не COUNT(*)
+@Getter
+@Builder
+public class OrderSearchFilter {
+
+    public static final OrderSearchFilter EMPTY = OrderSearchFilter.builder().build();
+
+    private final List<OrderStatus> statuses;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final Long userId;
+    private final Long itemId;
+    private final BigDecimal minTotal;
+    private final BigDecimal maxTotal;
+    private final boolean estimate;
+
+    public boolean hasStatuses() {
+        return statuses != null && !statuses.isEmpty();
+    }
+
+    public boolean hasCreatedRange() {
+        return start != null && end != null && !start.isAfter(end);
+    }
+
+    public boolean hasTotalRange() {
+        return minTotal != null || maxTotal != null;
+    }
+}
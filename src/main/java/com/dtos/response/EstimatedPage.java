@@ -0,0 +1,19 @@
+package com.dtos.response;
+
+import lombok.Getter;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+// estimated = true: totalElements/totalPages - оценка планировщика PostgreSQL, а не COUNT(*)
+@Getter
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean estimated;
+
+    public EstimatedPage(List<T> content, Pageable pageable, long total, boolean estimated) {
+        super(content, pageable, total);
+        this.estimated = estimated;
+    }
+}
@@ -7,7 +7,6 @@ import jakarta.validation.constraints.Size;
 import lombok.*;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -25,5 +24,5 @@ public class ItemDto {
     @DecimalMin(value = "0.0", message = "Price must be >= 0")
     private BigDecimal price;
 
-    private List<OrderItemDto> orderItems; // связь List
+    // Позиции заказов сюда не входят: у популярного товара их миллионы -> GET /items/{id}/orderItems
 }
@@ -0,0 +1,24 @@
+package com.dtos.response;
+
+import com.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Строка ленты изменений; позиции не входят (их правка возвращает заказ в ленту) -> POST /orders/lookup
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderChangeDto {
+
+    private Long id;
+    private Long userId;
+    private OrderStatus status;
+    private BigDecimal totalPrice;
+    private Boolean deleted; // true = мягко удалён
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderChangesResponse {
+
+    private List<OrderChangeDto> changes;
+
+    // передать в следующий ?since=; при пустой странице равен исходному
+    private String nextCursor;
+
+    // true - есть ещё изменения, можно сразу запрашивать следующую страницу
+    private boolean hasMore;
+}
@@ -1,6 +1,8 @@
 package com.dtos.response;
 
 import com.enums.OrderStatus;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -12,8 +14,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonFilter(OrderDto.FIELDS_FILTER)
 public class OrderDto {
 
+    public static final String FIELDS_FILTER = "orderFields";
+
     private Long id;
 
     @NotNull
@@ -25,6 +30,7 @@ public class OrderDto {
 
     private Boolean deleted;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL) // null = позиции не запрашивались
     private List<OrderItemDto> orderItems;
 
 }
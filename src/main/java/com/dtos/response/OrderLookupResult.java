@@ -0,0 +1,20 @@
+package com.dtos.response;
+
+import com.enums.LookupStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLookupResult {
+
+    private Long id;
+
+    private LookupStatus status;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL) // только для FOUND
+    private OrderWithUserDto result;
+}
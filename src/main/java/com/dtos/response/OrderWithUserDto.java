@@ -1,6 +1,7 @@
 package com.dtos.response;
 
 import com.dtos.UserInfoDto;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 @Data
@@ -11,6 +12,7 @@ public class OrderWithUserDto {
 
     private OrderDto order;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL) // null = без ?include=user
     private UserInfoDto user;
 
 }
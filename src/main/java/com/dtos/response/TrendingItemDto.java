@@ -0,0 +1,19 @@
+package com.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingItemDto {
+
+    private Long itemId;
+    private String name;
+    private BigDecimal price;
+    // проданное количество за окно, оценка сверху
+    private Long quantity;
+}
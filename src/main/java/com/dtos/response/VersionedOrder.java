@@ -0,0 +1,14 @@
+package com.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Заказ и версия, с которой он прочитан: ETag ответа 200 считается по тому же, что отдали, без второго запроса
+@Getter
+@AllArgsConstructor
+public class VersionedOrder {
+
+    private final OrderWithUserDto order;
+
+    private final long version;
+}
@@ -49,4 +49,13 @@ public class Order {
 
     @LastModifiedDate
     private LocalDateTime updatedAt;
+
+    // xid последней транзакции, менявшей заказ или его позиции; ставит триггер, лента изменений читает
+    @Column(name = "change_xid", insertable = false, updatable = false)
+    private Long changeXid;
+
+    // Растёт с каждой записью заказа (и его позиций через touch): версия near cache и ETag, не зависит от часов
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
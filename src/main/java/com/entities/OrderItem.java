@@ -37,10 +37,21 @@ public class OrderItem {
     @Min(1)
     private Integer quantity;
 
+    // Ключ партиции order_items и половина FK на orders (010-...): позиции в том же месяце, что и заказ
+    @Column(name = "order_created_at", nullable = false, updatable = false)
+    private LocalDateTime orderCreatedAt;
+
     @CreatedDate
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
     @LastModifiedDate
     private LocalDateTime updatedAt;
+
+    @PrePersist
+    void copyOrderCreatedAt() {
+        if (orderCreatedAt == null && order != null) {
+            orderCreatedAt = order.getCreatedAt();
+        }
+    }
 }
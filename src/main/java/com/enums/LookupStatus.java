@@ -0,0 +1,7 @@
+package com.enums;
+
+public enum LookupStatus {
+    FOUND,
+    // и для чужих заказов
+    NOT_FOUND
+}
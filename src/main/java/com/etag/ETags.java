@@ -0,0 +1,49 @@
+package com.etag;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+public final class ETags {
+
+    // Строгий ETag из версионных полей: updatedAt (в микросекундах) и счётчиков
+    public static String of(Object... versionParts) {
+        return Arrays.stream(versionParts)
+                .map(ETags::encode)
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    // ?include= / ?fields= меняют тело ответа -> входят в строгий ETag. null = параметра нет, порядок не важен
+    public static String selectorOf(Set<String> include, Set<String> fields) {
+        String canonical = canonical(include) + "|" + canonical(fields);
+        CRC32 crc = new CRC32();
+        crc.update(canonical.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static String canonical(Set<String> values) {
+        if (values == null) return "*";
+        return values.stream()
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new))
+                .toString();
+    }
+
+    private static String encode(Object part) {
+        if (part == null) return "0";
+        if (part instanceof LocalDateTime timestamp) {
+            long micros = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+            return Long.toHexString(micros);
+        }
+        if (part instanceof Number number) return Long.toHexString(number.longValue());
+        return part.toString();
+    }
+
+    private ETags() {}
+}
@@ -0,0 +1,48 @@
+package com.jobs;
+
+import com.routing.ShardTemplate;
+import com.services.IdempotencyService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Log4j2
+public class IdempotencyKeyCleanupJob {
+
+    private final IdempotencyService idempotencyService;
+    private final ShardTemplate shardTemplate;
+
+    @Value("${orders.idempotency.cleanup-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${orders.idempotency.cleanup-max-batches:20}")
+    private int maxBatches;
+
+    @Autowired
+    public IdempotencyKeyCleanupJob(IdempotencyService idempotencyService, ShardTemplate shardTemplate) {
+        this.idempotencyService = idempotencyService;
+        this.shardTemplate = shardTemplate;
+    }
+
+    // Пачками, чтобы не держать долгую транзакцию на таблице, в которую постоянно пишут.
+    // Ключ живёт на шарде своего заказа - чистим каждый
+    @Scheduled(fixedDelayString = "${orders.idempotency.cleanup-delay-ms:300000}")
+    public void deleteExpiredKeys() {
+        shardTemplate.forEachShard(this::deleteExpiredKeysOnShard);
+    }
+
+    private void deleteExpiredKeysOnShard(int shard) {
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int deleted = idempotencyService.deleteExpired(batchSize);
+            total += deleted;
+            if (deleted < batchSize) break;
+        }
+        if (total > 0) {
+            log.info("Deleted {} expired idempotency keys on shard {}", total, shard);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.jobs;
+
+import com.routing.ShardTemplate;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Component
+@Log4j2
+public class OrderArchiveJob {
+
+    // Одна пачка = одна транзакция. SKIP LOCKED: несколько нод забирают разные строки и не ждут друг друга
+    private static final String ARCHIVE_BATCH_SQL = """
+            WITH batch AS (
+                SELECT id, created_at
+                FROM orders
+                WHERE deleted = true AND updated_at < ?
+                ORDER BY updated_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ), moved_items AS (
+                DELETE FROM order_items oi
+                USING batch b
+                WHERE oi.order_id = b.id AND oi.order_created_at = b.created_at
+                RETURNING oi.id, oi.order_id, oi.item_id, oi.quantity, oi.created_at, oi.updated_at
+            ), archived_items AS (
+                INSERT INTO order_items_archive (id, order_id, item_id, quantity, created_at, updated_at)
+                SELECT id, order_id, item_id, quantity, created_at, updated_at FROM moved_items
+            ), moved_orders AS (
+                DELETE FROM orders o
+                USING batch b
+                WHERE o.id = b.id AND o.created_at = b.created_at
+                RETURNING o.id, o.user_id, o.status, o.total_price, o.created_at, o.updated_at
+            )
+            INSERT INTO orders_archive (id, user_id, status, total_price, created_at, updated_at)
+            SELECT id, user_id, status, total_price, created_at, updated_at FROM moved_orders
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardTemplate shardTemplate;
+
+    @Value("${orders.archive.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${orders.archive.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Autowired
+    public OrderArchiveJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ShardTemplate shardTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardTemplate = shardTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.archive.delay-ms:60000}")
+    public void archiveDeletedOrders() {
+        shardTemplate.forEachShard(this::archiveShard);
+    }
+
+    private void archiveShard(int shard) {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        int total = 0;
+
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer archived = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(ARCHIVE_BATCH_SQL, cutoff, batchSize));
+
+            if (archived == null || archived == 0) break;
+            total += archived;
+            if (archived < batchSize) break;
+        }
+
+        if (total > 0) {
+            log.info("Archived {} soft-deleted orders older than {} days on shard {}", total, retentionDays, shard);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.jobs;
+
+import com.routing.ShardTemplate;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Component
+@Log4j2
+public class PartitionMaintenanceJob {
+
+    // order_items партиционирован по created_at заказа: месяц заказов и месяц их позиций - одна пара
+    private static final List<String> PARTITIONED_TABLES = List.of("orders", "order_items");
+    private static final Pattern MONTHLY_ORDERS_PARTITION = Pattern.compile("orders_y(\\d{4})m(\\d{2})$");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardTemplate shardTemplate;
+
+    @Value("${orders.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 = старые партиции не трогаем
+    @Value("${orders.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Autowired
+    public PartitionMaintenanceJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   ShardTemplate shardTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardTemplate = shardTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${orders.partitions.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        shardTemplate.forEachShard(shard -> maintainShardPartitions());
+    }
+
+    private void maintainShardPartitions() {
+        YearMonth currentMonth = YearMonth.now();
+
+        for (String table : PARTITIONED_TABLES) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                LocalDate monthStart = currentMonth.plusMonths(i).atDay(1);
+                jdbcTemplate.queryForList("SELECT create_monthly_partition(?, ?)", table, Date.valueOf(monthStart));
+            }
+        }
+
+        if (retentionMonths > 0) {
+            dropExpiredMonths(currentMonth.minusMonths(retentionMonths));
+        }
+    }
+
+    // DETACH + DROP вместо построчного DELETE: мгновенно и без раздувания индексов.
+    // Месяц уходит только целиком и только пустым: живых заказов нет, а удалённые OrderArchiveJob уже перенёс в архив
+    private void dropExpiredMonths(YearMonth oldestKept) {
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = 'orders'
+                """, String.class);
+
+        for (String ordersPartition : partitions) {
+            Matcher matcher = MONTHLY_ORDERS_PARTITION.matcher(ordersPartition);
+            if (!matcher.matches()) continue; // default-партиция
+
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(oldestKept)) continue;
+
+            String itemsPartition = "order_items" + ordersPartition.substring("orders".length());
+            Boolean dropped = transactionTemplate.execute(status -> dropMonth(ordersPartition, itemsPartition));
+            if (Boolean.TRUE.equals(dropped)) {
+                log.info("Dropped expired partitions {} and {}", ordersPartition, itemsPartition);
+            } else {
+                log.warn("Partition {} is past retention but still has live or not yet archived orders, kept", ordersPartition);
+            }
+        }
+    }
+
+    private boolean dropMonth(String ordersPartition, String itemsPartition) {
+        // блокировка до проверки: пока решаем, в партицию никто не пишет
+        jdbcTemplate.execute("LOCK TABLE \"" + ordersPartition + "\" IN SHARE ROW EXCLUSIVE MODE");
+        // удалённые, но ещё не заархивированные заказы тоже держат месяц: DROP потерял бы их без следа
+        Boolean hasOrders = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM \"" + ordersPartition + "\")", Boolean.class);
+        if (Boolean.TRUE.equals(hasOrders)) {
+            return false;
+        }
+
+        // сначала позиции: FK order_items -> orders не даст отсоединить заказы, на которые ещё ссылаются
+        Boolean itemsExist = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, itemsPartition);
+        if (Boolean.TRUE.equals(itemsExist)) {
+            jdbcTemplate.execute("ALTER TABLE order_items DETACH PARTITION \"" + itemsPartition + "\"");
+            jdbcTemplate.execute("DROP TABLE \"" + itemsPartition + "\"");
+        }
+        jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION \"" + ordersPartition + "\"");
+        jdbcTemplate.execute("DROP TABLE \"" + ordersPartition + "\"");
+        return true;
+    }
+}
@@ -0,0 +1,141 @@
+package com.jobs;
+
+import com.cache.OrderCacheInvalidator;
+import com.enums.OrderStatus;
+import com.fsm.OrderStatusTransitions;
+import com.limiter.PaymentConsumerBackPressure;
+import com.routing.ShardTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Отмена NEW-заказов, по которым так и не пришла оплата. Маленькие пачки с SKIP LOCKED:
+// реплики делят работу без двойной обработки и не ждут строк, которые сейчас правит HTTP/Kafka
+@Component
+@Log4j2
+public class StaleOrderSweeper {
+
+    private static final OrderStatus FROM = OrderStatus.NEW;
+    private static final OrderStatus TO = OrderStatus.CANCELLED;
+
+    // created_at в условии -> partition pruning и idx_orders_active_status_created_at;
+    // status повторно проверяется в UPDATE уже под блокировкой строки; version увеличиваем сами, как это делает JPA
+    private static final String CANCEL_BATCH_SQL = """
+            WITH batch AS (
+                SELECT id, created_at
+                FROM orders
+                WHERE status = ? AND deleted = false AND created_at < ?
+                ORDER BY created_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            UPDATE orders o
+            SET status = ?, updated_at = ?, version = o.version + 1
+            FROM batch b
+            WHERE o.id = b.id AND o.created_at = b.created_at AND o.status = ?
+            RETURNING o.id, o.version
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderCacheInvalidator orderCacheInvalidator;
+    private final PaymentConsumerBackPressure paymentConsumerBackPressure;
+    private final ShardTemplate shardTemplate;
+    private final Counter cancelled;
+    private final DistributionSummary batchSizes;
+    private final Timer batchTimer;
+
+    @Value("${orders.sweeper.max-age-minutes:1440}")
+    private long maxAgeMinutes;
+
+    @Value("${orders.sweeper.batch-size:100}")
+    private int batchSize;
+
+    @Value("${orders.sweeper.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${orders.sweeper.batch-pause-ms:50}")
+    private long batchPauseMs;
+
+    @Autowired
+    public StaleOrderSweeper(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             OrderCacheInvalidator orderCacheInvalidator,
+                             PaymentConsumerBackPressure paymentConsumerBackPressure,
+                             ShardTemplate shardTemplate, MeterRegistry meterRegistry) {
+        if (!OrderStatusTransitions.canTransition(FROM, TO)) {
+            throw new IllegalStateException("Status transition " + FROM + " → " + TO + " is not allowed");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.orderCacheInvalidator = orderCacheInvalidator;
+        this.paymentConsumerBackPressure = paymentConsumerBackPressure;
+        this.shardTemplate = shardTemplate;
+        this.cancelled = Counter.builder("orders.sweeper.cancelled").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("orders.sweeper.batch.size").register(meterRegistry);
+        this.batchTimer = Timer.builder("orders.sweeper.batch.duration").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.sweeper.delay-ms:60000}")
+    public void cancelStaleOrders() {
+        shardTemplate.forEachShard(this::cancelOnShard);
+    }
+
+    private void cancelOnShard(int shard) {
+        int total = 0;
+
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            // БД уже перегружена - отмена подождёт до следующего запуска
+            if (paymentConsumerBackPressure.isPaused()) break;
+
+            Timer.Sample sample = Timer.start();
+            int processed = cancelBatch();
+            sample.stop(batchTimer);
+            batchSizes.record(processed);
+            cancelled.increment(processed);
+            total += processed;
+
+            if (processed < batchSize) break;
+            if (!pause()) break;
+        }
+
+        if (total > 0) {
+            log.info("Cancelled {} orders left in {} longer than {} minutes on shard {}", total, FROM, maxAgeMinutes, shard);
+        }
+    }
+
+    private int cancelBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp cutoff = Timestamp.valueOf(now.minusMinutes(maxAgeMinutes));
+
+        Integer count = transactionTemplate.execute(status -> {
+            List<long[]> updated = jdbcTemplate.query(CANCEL_BATCH_SQL,
+                    (rs, rowNum) -> new long[]{rs.getLong("id"), rs.getLong("version")},
+                    FROM.name(), cutoff, batchSize, TO.name(), Timestamp.valueOf(now), FROM.name());
+            updated.forEach(row -> orderCacheInvalidator.invalidateAfterCommit(row[0], row[1]));
+            return updated.size();
+        });
+        return count == null ? 0 : count;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
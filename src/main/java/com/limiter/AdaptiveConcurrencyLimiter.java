@@ -0,0 +1,73 @@
+package com.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// AIMD: +1 к лимиту, пока латентность в пределах цели и лимит реально выбран; x backoffRatio при превышении,
+// но не чаще раза за окно: медленные ответы запросов, начатых до прошлого снижения, - то же событие перегрузки
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final double lowPriorityShare;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // под synchronized decrease()
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long targetLatencyNanos, double backoffRatio, double lowPriorityShare) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.backoffRatio = backoffRatio;
+        this.lowPriorityShare = lowPriorityShare;
+    }
+
+    public boolean tryAcquire(RequestPriority priority) {
+        int allowed = priority == RequestPriority.LOW
+                ? Math.max(1, (int) (limit * lowPriorityShare))
+                : (int) limit;
+
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    public void release(long startNanos, long endNanos) {
+        int current = inFlight.getAndDecrement();
+
+        if (endNanos - startNanos > targetLatencyNanos) {
+            decrease(startNanos, endNanos);
+        } else if (current * 2 >= limit) {
+            increase();
+        }
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(maxLimit, limit + 1 / Math.max(1, Math.sqrt(limit)));
+    }
+
+    private synchronized void decrease(long startNanos, long endNanos) {
+        if (decreased && startNanos - lastDecreaseNanos <= 0) return;
+
+        decreased = true;
+        lastDecreaseNanos = endNanos;
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
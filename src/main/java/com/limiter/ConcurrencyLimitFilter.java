@@ -0,0 +1,98 @@
+package com.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Лимит только на HTTP: OrderEventConsumer идёт мимо фильтра и под нагрузкой не голодает
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Pattern ADMIN_LIST = Pattern.compile("^/(orders|orderItems|items/\\d+/orderItems)/?$");
+    // пакетные и аналитические чтения: лента изменений, тренды
+    private static final Pattern BULK_READ = Pattern.compile("^/(orders/changes|items/trending)/?$");
+    private static final Pattern BULK_LOOKUP = Pattern.compile("^/orders/lookup/?$");
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+
+    @Value("${orders.limiter.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  @Value("${orders.limiter.initial-limit:20}") int initialLimit,
+                                  @Value("${orders.limiter.min-limit:4}") int minLimit,
+                                  @Value("${orders.limiter.max-limit:200}") int maxLimit,
+                                  @Value("${orders.limiter.target-latency-ms:250}") long targetLatencyMs,
+                                  @Value("${orders.limiter.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${orders.limiter.low-priority-share:0.5}") double lowPriorityShare) {
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(targetLatencyMs), backoffRatio, lowPriorityShare);
+
+        Gauge.builder("http.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("http.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejected.put(priority, Counter.builder("http.concurrency.rejected")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestPriority priority = priorityOf(request);
+
+        if (!limiter.tryAcquire(priority)) {
+            rejected.get(priority).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(start, System.nanoTime());
+        }
+    }
+
+    private RequestPriority priorityOf(HttpServletRequest request) {
+        return priorityOf(request.getMethod(), request.getRequestURI());
+    }
+
+    static RequestPriority priorityOf(String method, String uri) {
+        boolean low = switch (method) {
+            case "GET" -> ADMIN_LIST.matcher(uri).matches() || BULK_READ.matcher(uri).matches();
+            case "POST" -> BULK_LOOKUP.matcher(uri).matches();
+            default -> false;
+        };
+        return low ? RequestPriority.LOW : RequestPriority.NORMAL;
+    }
+}
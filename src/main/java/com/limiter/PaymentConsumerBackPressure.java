@@ -0,0 +1,151 @@
+package com.limiter;
+
+import com.concurrent.KeyOrderedExecutor;
+import com.routing.HikariPools;
+import com.services.OrderEventConsumer;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Пауза партиций create-payment, пока БД не успевает: контейнер продолжает poll (heartbeat, без ребаланса),
+// но новых записей не получает. Возобновление с гистерезисом, чтобы не дёргать pause/resume на каждом тике.
+// Переполнение очереди воркеров проверка не ловит - его сразу гасит OrderEventConsumer паузой партиции
+@Component
+@Log4j2
+public class PaymentConsumerBackPressure {
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final KeyOrderedExecutor paymentEventExecutor;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final Counter pauses;
+    private final Counter resumes;
+
+    @Value("${orders.payments.backpressure.max-in-flight:400}")
+    private int maxInFlight;
+
+    @Value("${orders.payments.backpressure.resume-in-flight:100}")
+    private int resumeInFlight;
+
+    @Value("${orders.payments.backpressure.max-acquire-ms:100}")
+    private double maxAcquireMs;
+
+    @Value("${orders.payments.backpressure.max-threads-awaiting:5}")
+    private int maxThreadsAwaiting;
+
+    private volatile boolean paused;
+    private List<HikariDataSource> pools;
+    // по имени пула: {count, totalMs} таймера hikaricp.connections.acquire на прошлом тике
+    private final Map<String, double[]> lastAcquire = new HashMap<>();
+
+    @Autowired
+    public PaymentConsumerBackPressure(KafkaListenerEndpointRegistry listenerRegistry,
+                                       KeyOrderedExecutor paymentEventExecutor,
+                                       DataSource dataSource,
+                                       MeterRegistry meterRegistry) {
+        this.listenerRegistry = listenerRegistry;
+        this.paymentEventExecutor = paymentEventExecutor;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("payments.consumer.in.flight", paymentEventExecutor, KeyOrderedExecutor::getInFlight)
+                .register(meterRegistry);
+        Gauge.builder("payments.consumer.paused", this, backPressure -> backPressure.paused ? 1 : 0)
+                .register(meterRegistry);
+        this.pauses = Counter.builder("payments.consumer.pauses").register(meterRegistry);
+        this.resumes = Counter.builder("payments.consumer.resumes").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.payments.backpressure.check-interval-ms:500}")
+    public void check() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(OrderEventConsumer.LISTENER_ID);
+        if (container == null || !container.isRunning()) return;
+
+        int inFlight = paymentEventExecutor.getInFlight();
+        int threadsAwaiting = threadsAwaitingConnection();
+        double acquireMs = recentAcquireMillis();
+
+        if (!paused) {
+            if (inFlight >= maxInFlight || threadsAwaiting > maxThreadsAwaiting || acquireMs > maxAcquireMs) {
+                container.pause();
+                paused = true;
+                pauses.increment();
+                log.warn("Paused create-payment consumer: inFlight={}, threadsAwaitingConnection={}, acquireMs={}",
+                        inFlight, threadsAwaiting, acquireMs);
+            }
+        } else if (inFlight <= resumeInFlight && threadsAwaiting == 0 && acquireMs <= maxAcquireMs / 2) {
+            container.resume();
+            paused = false;
+            resumes.increment();
+            log.info("Resumed create-payment consumer: inFlight={}, acquireMs={}", inFlight, acquireMs);
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    // Худший из пулов: с шардами события разных заказов пишут в разные БД, хватает одной перегруженной
+    private int threadsAwaitingConnection() {
+        int awaiting = 0;
+        for (HikariDataSource pool : pools()) {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean != null) awaiting = Math.max(awaiting, mxBean.getThreadsAwaitingConnection());
+        }
+        return awaiting;
+    }
+
+    // Среднее время получения соединения с прошлого тика (hikaricp.connections.acquire - накопительный)
+    private double recentAcquireMillis() {
+        double worst = 0;
+        for (HikariDataSource pool : pools()) {
+            if (pool.getPoolName() == null) continue;
+
+            Timer timer = meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool.getPoolName()).timer();
+            if (timer == null) continue;
+
+            double[] last = lastAcquire.computeIfAbsent(pool.getPoolName(), name -> new double[2]);
+            long count = timer.count();
+            double totalMs = timer.totalTime(TimeUnit.MILLISECONDS);
+            double deltaCount = count - last[0];
+            double deltaMs = totalMs - last[1];
+            last[0] = count;
+            last[1] = totalMs;
+
+            if (deltaCount > 0) worst = Math.max(worst, deltaMs / deltaCount);
+        }
+        return worst;
+    }
+
+    private List<HikariDataSource> pools() {
+        if (pools == null) {
+            pools = poolsBehind(dataSource);
+            if (pools.isEmpty()) {
+                log.warn("No Hikari pool found behind {}, create-payment back-pressure uses in-flight only",
+                        dataSource.getClass().getSimpleName());
+            }
+        }
+        return pools;
+    }
+
+    // Пулы, в которые пишет обработка событий
+    static List<HikariDataSource> poolsBehind(DataSource dataSource) {
+        return HikariPools.writable(dataSource);
+    }
+}
@@ -0,0 +1,8 @@
+package com.limiter;
+
+public enum RequestPriority {
+    // админские списки, лента изменений, POST /orders/lookup, тренды: отбрасываются первыми
+    LOW,
+    // чтение/запись одного заказа
+    NORMAL
+}
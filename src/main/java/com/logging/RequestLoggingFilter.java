@@ -0,0 +1,75 @@
+package com.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Log4j2
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    public static final String DEBUG_SAMPLED = "debugSampled";
+
+    @Value("${orders.logging.debug-sample-rate:0.0}")
+    private double debugSampleRate;
+
+    // SQL копится и у запросов вне debug-выборки: иначе при debug-sample-rate=0 у медленного запроса не видно запросов в БД
+    @Value("${orders.logging.slow-sql-sample-rate:0.05}")
+    private double slowSqlSampleRate;
+
+    @Value("${orders.logging.latency-budget-ms:500}")
+    private long latencyBudgetMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean sampled = isSampled(debugSampleRate);
+        boolean capturing = sampled || isSampled(slowSqlSampleRate);
+        if (sampled) {
+            MDC.put(DEBUG_SAMPLED, "true");
+        }
+        if (capturing) {
+            SqlCaptureInspector.begin();
+        }
+        long start = System.nanoTime();
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            if (capturing) {
+                List<String> statements = SqlCaptureInspector.end();
+                if (elapsedMs > latencyBudgetMs) {
+                    log.warn("{} {} took {} ms (budget {} ms), {} SQL statements:\n{}",
+                            request.getMethod(), request.getRequestURI(), elapsedMs, latencyBudgetMs,
+                            statements.size(), String.join("\n", statements));
+                }
+            } else if (elapsedMs > latencyBudgetMs) {
+                log.warn("{} {} took {} ms (budget {} ms)",
+                        request.getMethod(), request.getRequestURI(), elapsedMs, latencyBudgetMs);
+            }
+            if (sampled) {
+                MDC.remove(DEBUG_SAMPLED);
+            }
+        }
+    }
+
+    private static boolean isSampled(double rate) {
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+}
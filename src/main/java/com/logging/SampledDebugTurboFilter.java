@@ -0,0 +1,20 @@
+package com.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+// Для запросов из выборки включает DEBUG наших логгеров (com.*), не трогая TRACE и сторонние библиотеки
+public class SampledDebugTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level != Level.DEBUG || !logger.getName().startsWith("com.")) {
+            return FilterReply.NEUTRAL;
+        }
+        return "true".equals(MDC.get(RequestLoggingFilter.DEBUG_SAMPLED)) ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+}
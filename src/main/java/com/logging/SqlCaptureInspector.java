@@ -0,0 +1,37 @@
+package com.logging;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Копит SQL текущего запроса из выборки (debug-sample-rate); печатается, если он вылез за бюджет (см. RequestLoggingFilter).
+// Вне выборки begin() не вызывается и inspect() - одно чтение ThreadLocal
+public class SqlCaptureInspector implements StatementInspector {
+
+    private static final int MAX_STATEMENTS = 50;
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    public static void begin() {
+        CAPTURED.set(new ArrayList<>());
+    }
+
+    public static List<String> end() {
+        List<String> statements = CAPTURED.get();
+        CAPTURED.remove();
+        return statements == null ? List.of() : statements;
+    }
+
+    static boolean isCapturing() {
+        return CAPTURED.get() != null;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = CAPTURED.get();
+        if (statements != null && statements.size() < MAX_STATEMENTS) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
@@ -7,10 +7,9 @@ import org.mapstruct.*;
 
 import java.util.List;
 
-@Mapper(componentModel = "spring", uses = {OrderItemMapper.class})
+@Mapper(componentModel = "spring")
 public interface ItemMapper {
 
-    @Mapping(target = "orderItems", source = "orderItems")
     ItemDto toDto(Item item);
 
     Item fromCreateUpdateDto(ItemCreateUpdateDto dto);
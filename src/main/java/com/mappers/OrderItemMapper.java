@@ -18,6 +18,7 @@ public interface OrderItemMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "order", ignore = true)
     @Mapping(target = "item", ignore = true)
+    @Mapping(target = "orderCreatedAt", ignore = true)
     OrderItem fromCreateUpdateDto(OrderItemCreateUpdateDto dto);
 
     default List<OrderItem> fromDtoList(List<OrderItemDto> dtos) {
@@ -1,6 +1,7 @@
 package com.mappers;
 
 import com.dtos.request.OrderCreateUpdateDto;
+import com.dtos.response.OrderChangeDto;
 import com.dtos.response.OrderDto;
 import com.entities.Order;
 import org.mapstruct.*;
@@ -13,6 +14,13 @@ public interface OrderMapper {
     @Mapping(source = "orderItems", target = "orderItems")
     OrderDto toDto(Order order);
 
+    // Не трогает ленивую коллекцию -> без запроса к order_items
+    @Named("withoutItems")
+    @Mapping(target = "orderItems", ignore = true)
+    OrderDto toDtoWithoutItems(Order order);
+
+    OrderChangeDto toChangeDto(Order order);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "orderItems", ignore = true)
     @Mapping(target = "deleted", constant = "false")
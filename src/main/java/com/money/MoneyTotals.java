@@ -0,0 +1,71 @@
+package com.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+// Сумма price * quantity в long минимальных единицах (центах при DECIMAL(10,2)).
+// Результат совпадает с reduce(BigDecimal.ZERO, add) по значению и по scale; при переполнении - тот же расчёт на BigDecimal
+public final class MoneyTotals {
+
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    public static <T> BigDecimal total(List<T> lines, Function<T, BigDecimal> price, ToIntFunction<T> quantity) {
+        long sum = 0;
+        // как у BigDecimal.ZERO: scale суммы = max(0, scale слагаемых)
+        int scale = 0;
+
+        try {
+            for (int i = 0, size = lines.size(); i < size; i++) {
+                T line = lines.get(i);
+                BigDecimal linePrice = price.apply(line);
+                int lineScale = linePrice.scale();
+
+                if (lineScale > scale) {
+                    sum = Math.multiplyExact(sum, pow10(lineScale - scale));
+                    scale = lineScale;
+                }
+
+                // unscaledValue() кэшируется внутри BigDecimal: цена товара конвертируется один раз на экземпляр
+                BigInteger unscaled = linePrice.unscaledValue();
+                if (unscaled.bitLength() > 63) {
+                    return totalExact(lines, price, quantity);
+                }
+
+                long minorUnits = Math.multiplyExact(unscaled.longValue(), pow10(scale - lineScale));
+                sum = Math.addExact(sum, Math.multiplyExact(minorUnits, quantity.applyAsInt(line)));
+            }
+        } catch (ArithmeticException overflow) {
+            return totalExact(lines, price, quantity);
+        }
+
+        return BigDecimal.valueOf(sum, scale);
+    }
+
+    // Прежний расчёт, один в один
+    static <T> BigDecimal totalExact(List<T> lines, Function<T, BigDecimal> price, ToIntFunction<T> quantity) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (T line : lines) {
+            total = total.add(price.apply(line).multiply(BigDecimal.valueOf(quantity.applyAsInt(line))));
+        }
+        return total;
+    }
+
+    private static long pow10(int exponent) {
+        if (exponent >= POW10.length) {
+            throw new ArithmeticException("Scale difference too large: " + exponent);
+        }
+        return POW10[exponent];
+    }
+
+    private MoneyTotals() {}
+}
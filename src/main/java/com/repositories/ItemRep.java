@@ -1,12 +1,33 @@
 package com.repositories;
 
+import com.dtos.response.ItemDto;
 import com.entities.Item;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ItemRep extends JpaRepository<Item, Long> {
 
     Optional<Item> findByName(String name);
 
+    @Query("select i.updatedAt as updatedAt from Item i where i.id = :id")
+    Optional<ItemVersionView> findVersionById(@Param("id") Long id);
+
+    // Каталог: DTO-проекция по трём колонкам, коллекция orderItems не трогается
+    @Query("select new com.dtos.response.ItemDto(i.id, i.name, i.price) from Item i where i.id = :id")
+    Optional<ItemDto> findCatalogById(@Param("id") Long id);
+
+    @Query(value = "select new com.dtos.response.ItemDto(i.id, i.name, i.price) from Item i",
+            countQuery = "select count(i) from Item i")
+    Page<ItemDto> findCatalog(Pageable pageable);
+
+    @Query("select new com.dtos.response.ItemDto(i.id, i.name, i.price) from Item i where i.id in :ids")
+    List<ItemDto> findCatalogByIds(@Param("ids") Collection<Long> ids);
+
 }
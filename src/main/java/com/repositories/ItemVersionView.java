@@ -0,0 +1,8 @@
+package com.repositories;
+
+import java.time.LocalDateTime;
+
+public interface ItemVersionView {
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,74 @@
+package com.repositories;
+
+import com.dtos.request.OrderSearchFilter;
+import com.enums.OrderStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Оценка числа строк по EXPLAIN: те же условия, что и в OrderServiceSpecifications.matching, но сам запрос не выполняется
+@Repository
+public class OrderCountEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OrderCountEstimator(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public long estimate(OrderSearchFilter filter) {
+        List<Object> args = new ArrayList<>();
+        String sql = "EXPLAIN (FORMAT JSON) SELECT 1 FROM orders o WHERE " + whereOf(filter, args);
+
+        String plan = jdbcTemplate.queryForObject(sql, String.class, args.toArray());
+        try {
+            return objectMapper.readTree(plan).get(0).get("Plan").get("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot parse EXPLAIN output", e);
+        }
+    }
+
+    // Условия OrderServiceSpecifications.matching в SQL; параметры дописываются в args по порядку
+    static String whereOf(OrderSearchFilter filter, List<Object> args) {
+        StringBuilder where = new StringBuilder("o.deleted = false");
+
+        if (filter.hasStatuses()) {
+            where.append(" AND o.status IN (")
+                    .append(String.join(", ", Collections.nCopies(filter.getStatuses().size(), "?")))
+                    .append(")");
+            filter.getStatuses().stream().map(OrderStatus::name).forEach(args::add);
+        }
+        if (filter.hasCreatedRange()) {
+            where.append(" AND o.created_at BETWEEN ? AND ?");
+            args.add(Timestamp.valueOf(filter.getStart()));
+            args.add(Timestamp.valueOf(filter.getEnd()));
+        }
+        if (filter.getUserId() != null) {
+            where.append(" AND o.user_id = ?");
+            args.add(filter.getUserId());
+        }
+        if (filter.getItemId() != null) {
+            where.append(" AND EXISTS (SELECT 1 FROM order_items oi WHERE oi.order_id = o.id AND oi.item_id = ?)");
+            args.add(filter.getItemId());
+        }
+        if (filter.getMinTotal() != null) {
+            where.append(" AND o.total_price >= ?");
+            args.add(filter.getMinTotal());
+        }
+        if (filter.getMaxTotal() != null) {
+            where.append(" AND o.total_price <= ?");
+            args.add(filter.getMaxTotal());
+        }
+        return where.toString();
+    }
+}
@@ -1,12 +1,33 @@
 package com.repositories;
 
+import com.dtos.response.OrderItemDto;
 import com.entities.OrderItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderItemRep extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findAllByOrderId(Long orderId);
 
+    @Query("select oi.order.userId as userId, oi.updatedAt as updatedAt from OrderItem oi where oi.id = :id")
+    Optional<OwnedVersionView> findVersionById(@Param("id") Long id);
+
+    // Только id заказа, без сущностей в сессии: заказ затем берётся под FOR UPDATE уже свежим
+    @Query("select oi.order.id from OrderItem oi where oi.id = :id")
+    Optional<Long> findOrderIdById(@Param("id") Long id);
+
+    @Query(value = """
+            select new com.dtos.response.OrderItemDto(oi.id, oi.quantity, oi.order.id, oi.item.id)
+            from OrderItem oi
+            where oi.item.id = :itemId
+            """,
+            countQuery = "select count(oi) from OrderItem oi where oi.item.id = :itemId")
+    Page<OrderItemDto> findDtosByItemId(@Param("itemId") Long itemId, Pageable pageable);
+
 }
@@ -1,18 +1,51 @@
 package com.repositories;
 
 import com.entities.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRep extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrderRep extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderSearchRep {
 
     Optional<Order> findByIdAndDeletedFalse(Long id);
 
+    // SELECT ... FOR UPDATE для всех путей, меняющих заказ или его позиции: Hibernate пишет строку целиком,
+    // и заказ, прочитанный без блокировки, вернул бы статус, поставленный StaleOrderSweeper между чтением и записью.
+    // Свипер такую строку пропускает (SKIP LOCKED), а если успел первым - ждём и видим его статус
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id = :id and o.deleted = false")
+    Optional<Order> findActiveByIdForUpdate(@Param("id") Long id);
+
     List<Order> findAllByUserIdAndDeletedFalse(Long userId);
 
+    List<Order> findAllByIdInAndDeletedFalse(Collection<Long> ids);
+
+    // позиции одним запросом вместе с заказами, без N+1
+    @EntityGraph(attributePaths = "orderItems")
+    List<Order> findWithItemsByIdInAndDeletedFalse(Collection<Long> ids);
+
+    // Keyset по idx_orders_change_xid_id; deleted не фильтруется - удаления тоже изменения.
+    // Только xid ниже xmin снимка: такие транзакции завершены, более ранний xid уже не появится
+    @Query(value = """
+            SELECT * FROM orders
+            WHERE (change_xid, id) > (:changeXid, :id)
+              AND change_xid < pg_snapshot_xmin(pg_current_snapshot())::text::bigint
+            ORDER BY change_xid, id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Order> findChangesAfter(@Param("changeXid") long changeXid, @Param("id") long id, @Param("limit") int limit);
+
+    @Query("select o.userId as userId, o.version as version from Order o where o.id = :id and o.deleted = false")
+    Optional<OrderVersionView> findVersionById(@Param("id") Long id);
+
 }
@@ -0,0 +1,13 @@
+package com.repositories;
+
+import com.entities.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface OrderSearchRep {
+
+    // Только содержимое страницы, без COUNT(*) (findAll(spec, pageable) считает всегда)
+    List<Order> findPageContent(Specification<Order> spec, Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.repositories;
+
+// Владелец и счётчик версии заказа: для проверки доступа и ETag без загрузки сущности и позиций
+public interface OrderVersionView {
+
+    Long getUserId();
+
+    Long getVersion();
+}
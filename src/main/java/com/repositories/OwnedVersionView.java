@@ -0,0 +1,11 @@
+package com.repositories;
+
+import java.time.LocalDateTime;
+
+// Только то, что нужно для проверки доступа и ETag: без загрузки сущности и позиций
+public interface OwnedVersionView {
+
+    Long getUserId();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,83 @@
+package com.routing;
+
+import com.entities.Item;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// items - справочник: пишется на шард 0 (id оттуда), на остальные копируется с тем же id,
+// потому что order_items каждого шарда ссылаются на items своего шарда (FK)
+@Component
+@Log4j2
+public class CatalogReplicator {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO items (id, name, price, created_at, updated_at) VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (id) DO UPDATE
+            SET name = EXCLUDED.name, price = EXCLUDED.price, updated_at = EXCLUDED.updated_at
+            """;
+
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CatalogReplicator(ShardRouter shardRouter, ShardTemplate shardTemplate, JdbcTemplate jdbcTemplate) {
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Внутри транзакции шарда 0 после flush: упал любой шард -> откатывается и запись на шарде 0.
+    // Уже записанные шарды остаются с копией - безвредно, следующий upsert того же id её перезапишет
+    public void upsert(Item item) {
+        for (int shard = 1; shard < shardRouter.getShardCount(); shard++) {
+            shardTemplate.write(shard, () -> jdbcTemplate.update(UPSERT_SQL, item.getId(), item.getName(), item.getPrice(),
+                    timestampOf(item.getCreatedAt()), timestampOf(item.getUpdatedAt())));
+        }
+    }
+
+    // FK RESTRICT на шарде с позициями по товару -> ошибка; уже удалённые копии возвращаем
+    public void delete(Item item) {
+        for (int shard = 1; shard < shardRouter.getShardCount(); shard++) {
+            try {
+                shardTemplate.write(shard, () -> jdbcTemplate.update("DELETE FROM items WHERE id = ?", item.getId()));
+            } catch (RuntimeException ex) {
+                for (int restored = 1; restored < shard; restored++) {
+                    shardTemplate.write(restored, () -> jdbcTemplate.update(UPSERT_SQL, item.getId(), item.getName(),
+                            item.getPrice(), timestampOf(item.getCreatedAt()), timestampOf(item.getUpdatedAt())));
+                }
+                throw ex;
+            }
+        }
+    }
+
+    // Новый шард или пропущенная запись: при старте догоняем справочник с шарда 0
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncCatalog() {
+        if (!shardRouter.isEnabled() || shardRouter.getShardCount() == 1) return;
+
+        List<Map<String, Object>> items = shardTemplate.read(0, () ->
+                jdbcTemplate.queryForList("SELECT id, name, price, created_at, updated_at FROM items"));
+        List<Object[]> rows = items.stream()
+                .map(row -> new Object[]{row.get("id"), row.get("name"), row.get("price"), row.get("created_at"), row.get("updated_at")})
+                .toList();
+
+        for (int shard = 1; shard < shardRouter.getShardCount(); shard++) {
+            shardTemplate.write(shard, () -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+        }
+        log.info("Item catalog ({} items) synced to {} shards", rows.size(), shardRouter.getShardCount() - 1);
+    }
+
+    private static Timestamp timestampOf(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+}
@@ -0,0 +1,49 @@
+package com.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// Hikari-пулы за @Primary DataSource: LazyConnectionDataSourceProxy -> маршрутизатор шардов/реплик -> пулы.
+// Соединение через сам прокси попадает только в один пул (без ShardContext - шард 0), остальные его не видят
+public final class HikariPools {
+
+    private HikariPools() {
+    }
+
+    // Пулы, в которые идут записи: шарды - все, реплики - только primary (default), обычный Boot - сам HikariDataSource
+    public static List<HikariDataSource> writable(DataSource dataSource) {
+        return find(dataSource, false);
+    }
+
+    // Все пулы, включая реплики
+    public static List<HikariDataSource> all(DataSource dataSource) {
+        return find(dataSource, true);
+    }
+
+    private static List<HikariDataSource> find(DataSource dataSource, boolean includeReplicas) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return List.of(hikari);
+        }
+        if (dataSource instanceof ShardRoutingDataSource sharded) {
+            return sharded.getShards();
+        }
+        if (dataSource instanceof AbstractRoutingDataSource routing) {
+            if (includeReplicas) {
+                return routing.getResolvedDataSources().values().stream()
+                        .flatMap(target -> find(target, true).stream())
+                        .distinct()
+                        .toList();
+            }
+            DataSource primary = routing.getResolvedDefaultDataSource();
+            return primary == null ? List.of() : find(primary, false);
+        }
+        if (dataSource instanceof DelegatingDataSource delegating && delegating.getTargetDataSource() != null) {
+            return find(delegating.getTargetDataSource(), includeReplicas);
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,21 @@
+package com.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ReplicaNode {
+
+    private final String key;
+    private final HikariDataSource dataSource;
+
+    private volatile boolean healthy;
+    private volatile long lagMs;
+
+    public ReplicaNode(String key, HikariDataSource dataSource) {
+        this.key = key;
+        this.dataSource = dataSource;
+    }
+}
@@ -0,0 +1,46 @@
+package com.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Работает только за LazyConnectionDataSourceProxy: флаг readOnly транзакции выставляется после doBegin
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaSelector replicaSelector;
+
+    public ReplicaRoutingDataSource(ReplicaSelector replicaSelector) {
+        this.replicaSelector = replicaSelector;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return replicaSelector.nextHealthyKey().orElse(PRIMARY);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        DataSource target = getResolvedDataSources().get(key);
+
+        if (PRIMARY.equals(key)) {
+            return target.getConnection();
+        }
+
+        try {
+            return target.getConnection();
+        } catch (SQLException ex) {
+            // реплика отвалилась между health-check'ами -> сразу на primary
+            replicaSelector.markUnhealthy((String) key);
+            return getResolvedDefaultDataSource().getConnection();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.routing;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Log4j2
+public class ReplicaSelector implements DisposableBean {
+
+    // На primary pg_is_in_recovery() = false -> лаг 0 (удобно для локального стенда из двух независимых инстансов).
+    // Реплика, которая стримит WAL и применила всё принятое, отстаёт на 0, сколько бы primary ни простаивал:
+    // now() - pg_last_xact_replay_timestamp() в простое растёт без всякого отставания.
+    // Оборванный стрим (receive LSN застыл) меряем по времени последней применённой транзакции
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming')
+                     AND pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0)
+            END
+            """;
+
+    @Getter
+    private final List<ReplicaNode> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public ReplicaSelector(List<ReplicaNode> replicas, long maxLagMs) {
+        this.replicas = replicas;
+        this.maxLagMs = maxLagMs;
+    }
+
+    // Round-robin по здоровым репликам; пусто -> читаем с primary
+    public Optional<String> nextHealthyKey() {
+        int size = replicas.size();
+        if (size == 0) return Optional.empty();
+
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaNode node = replicas.get((start + i) % size);
+            if (node.isHealthy()) return Optional.of(node.getKey());
+        }
+        return Optional.empty();
+    }
+
+    public void markUnhealthy(String key) {
+        replicas.stream()
+                .filter(node -> node.getKey().equals(key))
+                .forEach(node -> node.setHealthy(false));
+    }
+
+    @Scheduled(fixedDelayString = "${orders.datasource.replica.health-check-ms:2000}")
+    public void checkReplicas() {
+        for (ReplicaNode node : replicas) {
+            boolean wasHealthy = node.isHealthy();
+            try {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(node.getDataSource());
+                jdbcTemplate.setQueryTimeout(1);
+                Double lag = jdbcTemplate.queryForObject(LAG_SQL, Double.class);
+
+                node.setLagMs(lag == null ? 0 : lag.longValue());
+                node.setHealthy(node.getLagMs() <= maxLagMs);
+            } catch (Exception ex) {
+                node.setHealthy(false);
+                log.debug("Replica {} health check failed: {}", node.getKey(), ex.getMessage());
+            }
+
+            if (wasHealthy != node.isHealthy()) {
+                log.warn("Replica {} is now {} (lag {} ms)", node.getKey(),
+                        node.isHealthy() ? "UP" : "DOWN", node.getLagMs());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(node -> node.getDataSource().close());
+    }
+}
@@ -0,0 +1,50 @@
+package com.routing;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Шард текущего потока. Читается ShardRoutingDataSource в момент, когда LazyConnectionDataSourceProxy
+// берёт настоящее соединение (первый запрос транзакции), поэтому выставлять надо до первого запроса
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    // null -> шард по умолчанию (0): каталог товаров
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+
+    // Привязка на время текущей транзакции; одна транзакция = одно соединение = один шард
+    static void bindToTransaction(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Shard binding requires an active transaction");
+        }
+
+        Integer previous = CURRENT.get();
+        if (previous != null) {
+            if (previous != shard) {
+                throw new IllegalStateException("Transaction is already bound to shard " + previous + ", requested " + shard);
+            }
+            return;
+        }
+
+        CURRENT.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                CURRENT.remove();
+            }
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package com.routing;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Куда идёт заказ. Новый заказ - на шард по хэшу userId; дальше по id: sequence каждого шарда выдаёт
+// id с шагом idSlots, начиная с номера шарда (009-...), поэтому id % idSlots = шард, где строка лежит.
+// Сменить idSlots или порядок urls после первого старта нельзя - миграция 009 остановит запуск.
+// Без orders.sharding.enabled всё на шарде 0 и ничего не привязывается
+@Component
+public class ShardRouter {
+
+    @Getter
+    private final boolean enabled;
+    @Getter
+    private final int shardCount;
+    @Getter
+    private final int idSlots;
+
+    // id, выданные до перехода на шаг idSlots, остались в базе, ставшей шардом 0;
+    // sequence всех шардов начинаются выше (009-...)
+    @Getter
+    private final long legacyMaxOrderId;
+    @Getter
+    private final long legacyMaxOrderItemId;
+
+    @Autowired
+    public ShardRouter(@Value("${orders.sharding.enabled:false}") boolean enabled,
+                       @Value("${orders.sharding.urls:}") String[] urls,
+                       @Value("${orders.sharding.id-slots:16}") int idSlots,
+                       @Value("${orders.sharding.legacy-max-order-id:0}") long legacyMaxOrderId,
+                       @Value("${orders.sharding.legacy-max-order-item-id:0}") long legacyMaxOrderItemId) {
+        this.enabled = enabled;
+        this.shardCount = enabled ? urls.length : 1;
+        this.idSlots = enabled ? idSlots : 1;
+        this.legacyMaxOrderId = legacyMaxOrderId;
+        this.legacyMaxOrderItemId = legacyMaxOrderItemId;
+
+        if (enabled && (shardCount == 0 || shardCount > idSlots)) {
+            throw new IllegalStateException("orders.sharding.urls must list 1.." + idSlots + " shards, got " + shardCount);
+        }
+    }
+
+    // userId приходит извне -> перемешиваем биты, а не берём остаток как есть
+    public int shardOfUser(Long userId) {
+        if (!enabled) return 0;
+        long hash = userId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(hash ^ (hash >>> 32), shardCount);
+    }
+
+    public int shardOfOrder(Long orderId) {
+        return shardOfId(orderId, legacyMaxOrderId);
+    }
+
+    public int shardOfOrderItem(Long orderItemId) {
+        return shardOfId(orderItemId, legacyMaxOrderItemId);
+    }
+
+    // Вызывать в начале @Transactional-метода, до первого запроса
+    public void bindUser(Long userId) {
+        if (enabled) ShardContext.bindToTransaction(shardOfUser(userId));
+    }
+
+    public void bindOrder(Long orderId) {
+        if (enabled) ShardContext.bindToTransaction(shardOfOrder(orderId));
+    }
+
+    public void bindOrderItem(Long orderItemId) {
+        if (enabled) ShardContext.bindToTransaction(shardOfOrderItem(orderItemId));
+    }
+
+    private int shardOfId(Long id, long legacyMaxId) {
+        if (!enabled || id == null || id <= legacyMaxId) return 0;
+        return (int) Math.floorMod(id, (long) idSlots);
+    }
+}
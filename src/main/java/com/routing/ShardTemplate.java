@@ -0,0 +1,113 @@
+package com.routing;
+
+import com.concurrent.Fork;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+// Запросы, которые не сводятся к одному шарду. Каждый шард - своя транзакция (REQUIRES_NEW),
+// поэтому сущности из action наружу не отдаём: маппим в DTO внутри.
+// Без шардирования action выполняется как есть, в текущей транзакции
+@Component
+public class ShardTemplate {
+
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    // scatter: шарды опрашиваются параллельно, поток ждёт в основном БД
+    private final ExecutorService shardExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public ShardTemplate(ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.shardRouter = shardRouter;
+
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public <T> T read(int shard, Supplier<T> action) {
+        return execute(shard, readTransaction, action);
+    }
+
+    public <T> T write(int shard, Supplier<T> action) {
+        return execute(shard, writeTransaction, action);
+    }
+
+    // Как write, но своя транзакция и без шардирования: для шагов, которые коммитятся только вместе
+    public <T> T writeAtomically(int shard, Supplier<T> action) {
+        if (!shardRouter.isEnabled()) {
+            return writeTransaction.execute(status -> action.get());
+        }
+        return execute(shard, writeTransaction, action);
+    }
+
+    // Результаты в порядке номеров шардов; ошибка любого шарда -> ошибка всего запроса
+    public <T> List<T> readAll(IntFunction<T> action) {
+        if (!shardRouter.isEnabled()) {
+            return List.of(action.apply(0));
+        }
+
+        List<Fork<T>> forks = new ArrayList<>(shardRouter.getShardCount());
+        try {
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                int target = shard;
+                forks.add(Fork.of(shardExecutor, () -> read(target, () -> action.apply(target))));
+            }
+            List<T> results = new ArrayList<>(forks.size());
+            for (Fork<T> fork : forks) {
+                results.add(fork.join());
+            }
+            return results;
+        } finally {
+            forks.forEach(Fork::cancel);
+        }
+    }
+
+    // Фоновые задачи со своими транзакциями (TransactionTemplate внутри action): только выставляем шард
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            Integer previous = ShardContext.current();
+            if (shardRouter.isEnabled()) ShardContext.set(shard);
+            try {
+                action.accept(shard);
+            } finally {
+                ShardContext.set(previous);
+            }
+        }
+    }
+
+    private <T> T execute(int shard, TransactionTemplate transaction, Supplier<T> action) {
+        if (!shardRouter.isEnabled()) {
+            return action.get();
+        }
+
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return transaction.execute(status -> action.get());
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shardExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,77 @@
+package com.routing;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeansException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+// Страница по всем шардам: каждый шард отдаёт первые offset + size строк в том же порядке,
+// итог - слияние, пропуск offset и size строк. Цена растёт с номером страницы -> глубину ограничиваем
+public final class ShardedPages {
+
+    private ShardedPages() {
+    }
+
+    public record Slice<T>(List<T> rows, long total) {}
+
+    // Сортировка + id последним ключом: без полного порядка слияние недетерминировано
+    public static Pageable headOf(Pageable pageable, long maxRows) {
+        if (pageable.isUnpaged()) {
+            throw new IllegalArgumentException("Unpaged queries are not supported across shards");
+        }
+        long rows = pageable.getOffset() + pageable.getPageSize();
+        if (rows > maxRows) {
+            throw new IllegalArgumentException("page * size must not exceed " + maxRows + " across shards");
+        }
+        return PageRequest.of(0, (int) rows, sortOf(pageable));
+    }
+
+    public static <T> PageImpl<T> merge(List<Slice<T>> slices, Pageable pageable, Function<T, Object> sortBean) {
+        Comparator<T> comparator = comparatorOf(sortOf(pageable), sortBean);
+
+        List<T> rows = new ArrayList<>();
+        long total = 0;
+        for (Slice<T> slice : slices) {
+            rows.addAll(slice.rows());
+            total += slice.total();
+        }
+        rows.sort(comparator);
+
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + pageable.getPageSize(), rows.size());
+        return new PageImpl<>(new ArrayList<>(rows.subList(from, to)), pageable, total);
+    }
+
+    private static Sort sortOf(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        return sort.getOrderFor("id") == null ? sort.and(Sort.by("id")) : sort;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> comparatorOf(Sort sort, Function<T, Object> sortBean) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Comparable> values = order.isAscending()
+                    ? Comparator.nullsLast(Comparator.naturalOrder())
+                    : Comparator.nullsFirst(Comparator.<Comparable>naturalOrder().reversed());
+            String property = order.getProperty();
+            comparator = comparator.thenComparing(row -> (Comparable) propertyOf(sortBean.apply(row), property), values);
+        }
+        return comparator;
+    }
+
+    private static Object propertyOf(Object bean, String property) {
+        try {
+            return new BeanWrapperImpl(bean).getPropertyValue(property);
+        } catch (BeansException ex) {
+            throw new IllegalArgumentException("Unsupported sort property across shards: " + property);
+        }
+    }
+}
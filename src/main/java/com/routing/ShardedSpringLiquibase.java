@@ -0,0 +1,40 @@
+package com.routing;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+// Тот же changelog на каждый шард по очереди. Наследник SpringLiquibase: Boot не поднимает свой
+// и так же запускает JPA только после миграций
+public class ShardedSpringLiquibase extends SpringLiquibase {
+
+    private final List<? extends DataSource> shards;
+    private final int idSlots;
+    private final long legacyMaxOrderId;
+    private final long legacyMaxOrderItemId;
+
+    public ShardedSpringLiquibase(List<? extends DataSource> shards, int idSlots,
+                                  long legacyMaxOrderId, long legacyMaxOrderItemId) {
+        this.shards = shards;
+        this.idSlots = idSlots;
+        this.legacyMaxOrderId = legacyMaxOrderId;
+        this.legacyMaxOrderItemId = legacyMaxOrderItemId;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        for (int i = 0; i < shards.size(); i++) {
+            setDataSource(shards.get(i));
+            // шаг, смещение и нижняя граница sequence в 009-sharded-id-sequences-shema.xml
+            setChangeLogParameters(Map.of(
+                    "shardIndex", String.valueOf(i),
+                    "shardSlots", String.valueOf(idSlots),
+                    "legacyMaxOrderId", String.valueOf(legacyMaxOrderId),
+                    "legacyMaxOrderItemId", String.valueOf(legacyMaxOrderItemId)));
+            super.afterPropertiesSet();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routing.ShardTemplate;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Idempotency-Key для POST: ключ захватывается в той же транзакции (и на том же шарде), что и само действие,
+// и коммитится вместе с его результатом. Упала нода - откатились и заказ, и ключ; повтор выполнится заново.
+// Параллельный дубль ждёт на блокировке строки ключа до коммита первого (не дольше wait-timeout-ms, потом 409)
+@Service
+@Log4j2
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final String COMPLETED = "COMPLETED";
+
+    // Незакоммиченный IN_PROGRESS виден только своей транзакции: конкурент ждёт на конфликте уникального ключа.
+    // Закоммиченный IN_PROGRESS мог оставить только прежний вариант с lease - такой ключ забираем
+    private static final String CLAIM_SQL = """
+            INSERT INTO idempotency_keys (scope, requester_id, idem_key, request_hash, status, locked_at, expires_at)
+            VALUES (?, ?, ?, ?, 'IN_PROGRESS', ?, ?)
+            ON CONFLICT (scope, requester_id, idem_key) DO UPDATE
+            SET request_hash = EXCLUDED.request_hash, status = 'IN_PROGRESS', status_code = NULL,
+                response_body = NULL, locked_at = EXCLUDED.locked_at, expires_at = EXCLUDED.expires_at
+            WHERE idempotency_keys.expires_at < EXCLUDED.locked_at
+               OR idempotency_keys.status = 'IN_PROGRESS'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ShardTemplate shardTemplate;
+
+    @Value("${orders.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${orders.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Autowired
+    public IdempotencyService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ShardTemplate shardTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.shardTemplate = shardTemplate;
+    }
+
+    // shard - шард, в который пишет action: ключ обязан коммититься в той же БД
+    public <T> ResponseEntity<T> execute(String key, String scope, Long requesterId, int shard, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must not be longer than " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = hash(request);
+        return shardTemplate.writeAtomically(shard, () -> {
+            if (!claim(scope, requesterId, key, requestHash)) {
+                return replay(scope, requesterId, key, requestHash, responseType);
+            }
+            return executeClaimed(scope, requesterId, key, action);
+        });
+    }
+
+    // Истёкшие ключи чистит IdempotencyKeyCleanupJob (на каждом шарде)
+    public int deleteExpired(int limit) {
+        return jdbcTemplate.update("""
+                DELETE FROM idempotency_keys
+                WHERE ctid IN (SELECT ctid FROM idempotency_keys WHERE expires_at < ? LIMIT ?)
+                """, Timestamp.valueOf(LocalDateTime.now()), limit);
+    }
+
+    // action присоединяется к транзакции ключа; исключение откатывает обоих - ошибку не запоминаем
+    private <T> ResponseEntity<T> executeClaimed(String scope, Long requesterId, String key,
+                                                 Supplier<ResponseEntity<T>> action) {
+        ResponseEntity<T> response = action.get();
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            release(scope, requesterId, key);
+            return response;
+        }
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(response.getBody());
+        } catch (JsonProcessingException ex) {
+            // результат действия коммитим, ключ нет - хуже только то, что повтор его не защитит
+            log.warn("Failed to store response for {} {}: {}", HEADER, key, ex.getMessage());
+            release(scope, requesterId, key);
+            return response;
+        }
+
+        jdbcTemplate.update("""
+                        UPDATE idempotency_keys SET status = 'COMPLETED', status_code = ?, response_body = ?
+                        WHERE scope = ? AND requester_id = ? AND idem_key = ?
+                        """,
+                response.getStatusCode().value(), body, scope, requesterId, key);
+        return response;
+    }
+
+    private boolean claim(String scope, Long requesterId, String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        // ожидание чужой незавершённой транзакции с тем же ключом ограничено только для этого INSERT
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + Math.max(1, waitTimeoutMs));
+        int claimed;
+        try {
+            claimed = jdbcTemplate.update(CLAIM_SQL,
+                    scope, requesterId, key, requestHash,
+                    Timestamp.valueOf(now), Timestamp.valueOf(now.plusHours(ttlHours)));
+        } catch (PessimisticLockingFailureException ex) {
+            // транзакция после таймаута уже прервана - только откат
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Request with this " + HEADER + " is still in progress", ex);
+        }
+        jdbcTemplate.execute("SET LOCAL lock_timeout TO DEFAULT");
+        return claimed == 1;
+    }
+
+    private void release(String scope, Long requesterId, String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE scope = ? AND requester_id = ? AND idem_key = ?",
+                scope, requesterId, key);
+    }
+
+    private <T> ResponseEntity<T> replay(String scope, Long requesterId, String key, String requestHash,
+                                         Class<T> responseType) {
+        StoredResponse stored = find(scope, requesterId, key);
+        if (stored == null || !COMPLETED.equals(stored.status())) {
+            // claim не прошёл, значит строка есть и закоммичена; сюда попадаем только при гонке с очисткой
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Request with this " + HEADER + " is still in progress");
+        }
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IllegalArgumentException(HEADER + " was already used with a different request");
+        }
+        try {
+            return ResponseEntity.status(stored.statusCode())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readValue(stored.responseBody(), responseType));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot read stored response", ex);
+        }
+    }
+
+    private StoredResponse find(String scope, Long requesterId, String key) {
+        List<StoredResponse> rows = jdbcTemplate.query("""
+                        SELECT request_hash, status, status_code, response_body
+                        FROM idempotency_keys
+                        WHERE scope = ? AND requester_id = ? AND idem_key = ?
+                        """,
+                (rs, rowNum) -> new StoredResponse(rs.getString("request_hash"), rs.getString("status"),
+                        rs.getInt("status_code"), rs.getBytes("response_body")),
+                scope, requesterId, key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot hash request", ex);
+        }
+    }
+
+    private record StoredResponse(String requestHash, String status, int statusCode, byte[] responseBody) {}
+}
@@ -3,39 +3,76 @@ package com.services;
 import com.checker.AccessChecker;
 import com.dtos.request.ItemCreateUpdateDto;
 import com.dtos.response.ItemDto;
+import com.dtos.response.OrderItemDto;
+import com.dtos.response.TrendingItemDto;
 import com.entities.Item;
+import com.etag.ETags;
 import com.mappers.ItemMapper;
 import com.repositories.ItemRep;
+import com.repositories.ItemVersionView;
+import com.repositories.OrderItemRep;
+import com.routing.CatalogReplicator;
+import com.routing.ShardRouter;
+import com.routing.ShardTemplate;
+import com.routing.ShardedPages;
+import com.trending.TopItemsTracker;
+import com.trending.TrendingWindow;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ItemService {
 
     private final ItemRep itemRepository;
+    private final OrderItemRep orderItemRepository;
     private final ItemMapper itemMapper;
     private final AccessChecker accessChecker;
+    private final TopItemsTracker topItemsTracker;
+    private final CatalogReplicator catalogReplicator;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+
+    @Value("${orders.sharding.max-scatter-rows:10000}")
+    private long maxScatterRows;
 
     @Autowired
-    public ItemService(ItemRep itemRepository, ItemMapper itemMapper, AccessChecker accessChecker) {
+    public ItemService(ItemRep itemRepository, OrderItemRep orderItemRepository, ItemMapper itemMapper, AccessChecker accessChecker, TopItemsTracker topItemsTracker, CatalogReplicator catalogReplicator, ShardRouter shardRouter, ShardTemplate shardTemplate) {
         this.itemRepository = itemRepository;
+        this.orderItemRepository = orderItemRepository;
         this.itemMapper = itemMapper;
         this.accessChecker = accessChecker;
+        this.topItemsTracker = topItemsTracker;
+        this.catalogReplicator = catalogReplicator;
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
     }
 
     @Transactional(readOnly = true)
     public ItemDto getItem(Long id, Long requesterId, Set<String> roles) {
         // USER и ADMIN могут смотреть
         accessChecker.checkUserAccess(requesterId, requesterId, roles);
-        Item item = itemRepository.findById(id)
+        return itemRepository.findCatalogById(id)
                 .orElseThrow(() -> new NoSuchElementException("Item not found"));
-        return itemMapper.toDto(item);
+    }
+
+    @Transactional(readOnly = true)
+    public String getItemETag(Long id, Long requesterId, Set<String> roles) {
+        accessChecker.checkUserAccess(requesterId, requesterId, roles);
+        ItemVersionView version = itemRepository.findVersionById(id)
+                .orElseThrow(() -> new NoSuchElementException("Item not found"));
+        return ETags.of(version.getUpdatedAt());
     }
 
     @Transactional
@@ -46,8 +83,9 @@ public class ItemService {
         if (itemRepository.findByName(dto.getName()).isPresent()) {
             throw new IllegalStateException("Item with this name already exists");
         }
-        Item item = itemMapper.fromCreateUpdateDto(dto);
-        return itemMapper.toDto(itemRepository.save(item));
+        Item item = itemRepository.save(itemMapper.fromCreateUpdateDto(dto));
+        catalogReplicator.upsert(item);
+        return itemMapper.toDto(item);
     }
 
     @Transactional
@@ -62,7 +100,9 @@ public class ItemService {
                 .ifPresent(existing -> { throw new IllegalStateException("Item with this name already exists"); });
 
         itemMapper.updateFromDto(dto, item);
-        return itemMapper.toDto(itemRepository.save(item));
+        item = itemRepository.saveAndFlush(item);
+        catalogReplicator.upsert(item);
+        return itemMapper.toDto(item);
     }
 
     @Transactional
@@ -72,12 +112,54 @@ public class ItemService {
         Item item = itemRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Item not found"));
         itemRepository.delete(item);
+        itemRepository.flush();
+        catalogReplicator.delete(item);
     }
 
     @Transactional(readOnly = true)
     public Page<ItemDto> getAllItems(Pageable pageable, Long requesterId, Set<String> roles) {
         accessChecker.checkUserAccess(requesterId, requesterId, roles);
-        return itemRepository.findAll(pageable).map(itemMapper::toDto);
+        return itemRepository.findCatalog(pageable);
     }
-}
 
+    // Позиции заказов по товару принадлежат разным пользователям -> только ADMIN
+    @Transactional(readOnly = true)
+    public Page<OrderItemDto> getItemOrderItems(Long id, Pageable pageable, Set<String> roles) {
+        accessChecker.checkAdminAccess(roles);
+
+        if (!itemRepository.existsById(id)) {
+            throw new NoSuchElementException("Item not found");
+        }
+        if (!shardRouter.isEnabled()) {
+            return orderItemRepository.findDtosByItemId(id, pageable);
+        }
+
+        // позиции по товару разбросаны по всем шардам
+        Pageable head = ShardedPages.headOf(pageable, maxScatterRows);
+        List<ShardedPages.Slice<OrderItemDto>> slices = shardTemplate.readAll(shard -> {
+            Page<OrderItemDto> page = orderItemRepository.findDtosByItemId(id, head);
+            return new ShardedPages.Slice<>(page.getContent(), page.getTotalElements());
+        });
+        return ShardedPages.merge(slices, pageable, dto -> dto);
+    }
+
+    // Оценки из памяти (count-min sketch), в БД только за названиями top-N товаров
+    @Transactional(readOnly = true)
+    public List<TrendingItemDto> getTrendingItems(TrendingWindow window, int limit, Long requesterId, Set<String> roles) {
+        accessChecker.checkUserAccess(requesterId, requesterId, roles);
+
+        List<Map.Entry<Long, Long>> top = topItemsTracker.top(window, limit);
+        if (top.isEmpty()) return List.of();
+
+        Map<Long, ItemDto> items = itemRepository.findCatalogByIds(top.stream().map(Map.Entry::getKey).toList()).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+
+        List<TrendingItemDto> result = new ArrayList<>(top.size());
+        for (Map.Entry<Long, Long> entry : top) {
+            ItemDto item = items.get(entry.getKey());
+            if (item == null) continue; // товар удалён
+            result.add(new TrendingItemDto(item.getId(), item.getName(), item.getPrice(), entry.getValue()));
+        }
+        return result;
+    }
+}
@@ -1,15 +1,21 @@
 package com.services;
 
-import com.entities.Item;
+import com.dtos.response.ItemDto;
 import com.entities.Order;
 import com.entities.OrderItem;
+import com.money.MoneyTotals;
 import com.repositories.ItemRep;
 import com.repositories.OrderItemRep;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 public class OrderCalculationService {
@@ -26,14 +32,7 @@ public class OrderCalculationService {
 
     public BigDecimal calculateTotal(Long orderId) {
         List<OrderItem> items = orderItemRepository.findAllByOrderId(orderId);
-        return items.stream()
-                .map(orderItem -> {
-                    Long itemId = orderItem.getItem().getId();
-                    Item item = itemRepository.findById(itemId)
-                            .orElseThrow(() -> new IllegalStateException("Item not found: " + itemId));
-                    return item.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity()));
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return MoneyTotals.total(items, pricesOf(items), OrderItem::getQuantity);
     }
 
     public void updateTotal(Order order) {
@@ -42,15 +41,31 @@ public class OrderCalculationService {
             return;
         }
 
-        BigDecimal total = order.getOrderItems().stream()
-                .map(orderItem -> {
-                    Long itemId = orderItem.getItem().getId();
-                    Item item = itemRepository.findById(itemId)
-                            .orElseThrow(() -> new IllegalStateException("Item not found: " + itemId));
-                    return item.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity()));
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<OrderItem> items = order.getOrderItems();
+        order.setTotalPrice(MoneyTotals.total(items, pricesOf(items), OrderItem::getQuantity));
+    }
+
+    // Цены всех позиций одним запросом (проекция id, name, price), а не findById на каждую строку
+    private Function<OrderItem, BigDecimal> pricesOf(List<OrderItem> lines) {
+        Set<Long> itemIds = new HashSet<>();
+        for (OrderItem line : lines) {
+            itemIds.add(line.getItem().getId());
+        }
+
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        if (!itemIds.isEmpty()) {
+            for (ItemDto item : itemRepository.findCatalogByIds(itemIds)) {
+                prices.put(item.getId(), item.getPrice());
+            }
+        }
 
-        order.setTotalPrice(total);
+        return line -> {
+            Long itemId = line.getItem().getId();
+            BigDecimal price = prices.get(itemId);
+            if (price == null) {
+                throw new IllegalStateException("Item not found: " + itemId);
+            }
+            return price;
+        };
     }
 }
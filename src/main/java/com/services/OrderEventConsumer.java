@@ -1,32 +1,67 @@
 package com.services;
 
+import com.concurrent.KeyOrderedExecutor;
 import com.enums.OrderStatus;
 import com.event.CreatePaymentEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
-
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderEventConsumer {
 
+    // по id контейнер ставит на паузу PaymentConsumerBackPressure
+    public static final String LISTENER_ID = "createPaymentListener";
+
     private final OrderService orderService;
+    private final KeyOrderedExecutor paymentEventExecutor;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    // Поток консьюмера только раздаёт события по orderId; offset коммитится после обработки (asyncAcks).
+    // Переполненный страйп не блокирует poll: партиция записи встаёт на паузу до разгрузки страйпа
+    @KafkaListener(id = LISTENER_ID, topics = "create-payment", groupId = "order-service-group")
+    public void handleCreatePaymentEvent(CreatePaymentEvent event, Acknowledgment ack,
+                                         @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                                         @Header(KafkaHeaders.RECEIVED_PARTITION) int partition) {
+        boolean saturated = paymentEventExecutor.execute(event.getOrderId(), () -> {
+            try {
+                process(event);
+            } finally {
+                ack.acknowledge();
+            }
+        });
+        if (saturated) {
+            pauseUntilDrained(event.getOrderId(), new TopicPartition(topic, partition));
+        }
+    }
+
+    // Уже полученные записи партиции ещё дойдут (очередь страйпа не ограничена), новых poll не вернёт
+    private void pauseUntilDrained(Long orderId, TopicPartition partition) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null) return;
+
+        container.pausePartition(partition);
+        log.debug("Paused {}: worker stripe of order {} is full", partition, orderId);
+        paymentEventExecutor.whenDrained(orderId, () -> container.resumePartition(partition));
+    }
 
-    @KafkaListener(topics = "create-payment", groupId = "order-service-group")
-    public void handleCreatePaymentEvent(CreatePaymentEvent event) {
-        log.info("Received CREATE_PAYMENT event: {}", event);
+    private void process(CreatePaymentEvent event) {
+        log.debug("Received CREATE_PAYMENT event for order {} with status {}", event.getOrderId(), event.getStatus());
 
         try {
             switch (event.getStatus()) {
-                case SUCCESS -> orderService.updateStatus(event.getOrderId(), OrderStatus.COMPLETED,
-                        0L, Set.of("SYSTEM")); // SYSTEM user для автоматической обработки
-                case FAILED -> orderService.updateStatus(event.getOrderId(), OrderStatus.CANCELLED,
-                        0L, Set.of("SYSTEM"));
-                case NEW -> log.info("Payment NEW status, no order update needed");
+                case SUCCESS -> orderService.updateStatusInternal(event.getOrderId(), OrderStatus.COMPLETED);
+                case FAILED -> orderService.updateStatusInternal(event.getOrderId(), OrderStatus.CANCELLED);
+                case NEW -> log.debug("Payment NEW status, no order update needed");
             }
         } catch (Exception e) {
             log.error("Failed to update order status for orderId {}: {}", event.getOrderId(), e.getMessage());
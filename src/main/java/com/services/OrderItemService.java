@@ -1,21 +1,32 @@
 package com.services;
 
+import com.cache.OrderCacheInvalidator;
 import com.checker.AccessChecker;
 import com.dtos.request.OrderItemCreateUpdateDto;
 import com.dtos.response.OrderItemDto;
 import com.entities.Item;
 import com.entities.Order;
 import com.entities.OrderItem;
+import com.etag.ETags;
 import com.mappers.OrderItemMapper;
 import com.repositories.ItemRep;
 import com.repositories.OrderItemRep;
 import com.repositories.OrderRep;
+import com.repositories.OwnedVersionView;
+import com.routing.ShardRouter;
+import com.routing.ShardTemplate;
+import com.routing.ShardedPages;
+import com.trending.TopItemsTracker;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
@@ -28,22 +39,35 @@ public class OrderItemService {
     private final ItemRep itemRepository;
     private final AccessChecker accessChecker;
     private final OrderCalculationService orderCalculationService;
+    private final OrderCacheInvalidator orderCacheInvalidator;
+    private final TopItemsTracker topItemsTracker;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+
+    @Value("${orders.sharding.max-scatter-rows:10000}")
+    private long maxScatterRows;
 
     @Autowired
-    public OrderItemService(OrderItemRep orderItemRepository, OrderItemMapper mapper, OrderRep orderRepository, ItemRep itemRepository, AccessChecker accessChecker, OrderCalculationService orderCalculationService) {
+    public OrderItemService(OrderItemRep orderItemRepository, OrderItemMapper mapper, OrderRep orderRepository, ItemRep itemRepository, AccessChecker accessChecker, OrderCalculationService orderCalculationService, OrderCacheInvalidator orderCacheInvalidator, TopItemsTracker topItemsTracker, ShardRouter shardRouter, ShardTemplate shardTemplate) {
         this.orderItemRepository = orderItemRepository;
         this.mapper = mapper;
         this.orderRepository = orderRepository;
         this.itemRepository = itemRepository;
         this.accessChecker = accessChecker;
         this.orderCalculationService = orderCalculationService;
+        this.orderCacheInvalidator = orderCacheInvalidator;
+        this.topItemsTracker = topItemsTracker;
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
     }
 
     @Transactional
     public OrderItemDto createOrderItem(OrderItemCreateUpdateDto dto, Long requesterId, Set<String> roles) {
         validateCreateUpdateDto(dto);
+        // позиция живёт на шарде заказа, её id выдаёт sequence того же шарда
+        shardRouter.bindOrder(dto.getOrderId());
 
-        Order order = orderRepository.findByIdAndDeletedFalse(dto.getOrderId())
+        Order order = orderRepository.findActiveByIdForUpdate(dto.getOrderId())
                 .orElseThrow(() -> new NoSuchElementException("Order not found"));
 
         accessChecker.checkUserAccess(order.getUserId(), requesterId, roles);
@@ -56,9 +80,11 @@ public class OrderItemService {
         orderItem.setItem(item);
 
         orderItemRepository.save(orderItem);
+        topItemsTracker.recordAfterCommit(Map.of(item.getId(), orderItem.getQuantity().longValue()));
 
         // пересчёт totalPrice по сущности
         orderCalculationService.updateTotal(order);
+        touch(order);
 
         return mapper.toDto(orderItem);
     }
@@ -66,22 +92,31 @@ public class OrderItemService {
     @Transactional
     public OrderItemDto updateOrderItem(Long id, OrderItemCreateUpdateDto dto, Long requesterId, Set<String> roles) {
         validateCreateUpdateDto(dto);
+        shardRouter.bindOrderItem(id);
 
+        lockOrderOf(id);
         OrderItem orderItem = orderItemRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("OrderItem not found"));
 
         accessChecker.checkUserAccess(orderItem.getOrder().getUserId(), requesterId, roles);
 
+        long increase = dto.getQuantity() - orderItem.getQuantity();
         orderItem.setQuantity(dto.getQuantity());
         orderItemRepository.save(orderItem);
+        if (increase > 0) {
+            topItemsTracker.recordAfterCommit(Map.of(orderItem.getItem().getId(), increase));
+        }
 
         orderCalculationService.updateTotal(orderItem.getOrder());
+        touch(orderItem.getOrder());
 
         return mapper.toDto(orderItem);
     }
 
     @Transactional
     public void deleteOrderItem(Long id, Long requesterId, Set<String> roles) {
+        shardRouter.bindOrderItem(id);
+        lockOrderOf(id);
         OrderItem orderItem = orderItemRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("OrderItem not found"));
 
@@ -91,10 +126,12 @@ public class OrderItemService {
         orderItemRepository.delete(orderItem);
 
         orderCalculationService.updateTotal(order);
+        touch(order);
     }
 
     @Transactional(readOnly = true)
     public OrderItemDto getOrderItemById(Long id, Long requesterId, Set<String> roles) {
+        shardRouter.bindOrderItem(id);
         OrderItem orderItem = orderItemRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("OrderItem not found"));
 
@@ -103,10 +140,51 @@ public class OrderItemService {
         return mapper.toDto(orderItem);
     }
 
+    @Transactional(readOnly = true)
+    public String getOrderItemETag(Long id, Long requesterId, Set<String> roles) {
+        shardRouter.bindOrderItem(id);
+        OwnedVersionView version = orderItemRepository.findVersionById(id)
+                .orElseThrow(() -> new NoSuchElementException("OrderItem not found"));
+
+        accessChecker.checkUserAccess(version.getUserId(), requesterId, roles);
+
+        return ETags.of(version.getUpdatedAt());
+    }
+
     @Transactional(readOnly = true)
     public Page<OrderItemDto> getAllOrderItems(Pageable pageable, Set<String> roles) {
         accessChecker.checkAdminAccess(roles);
-        return orderItemRepository.findAll(pageable).map(mapper::toDto);
+
+        if (!shardRouter.isEnabled()) {
+            return orderItemRepository.findAll(pageable).map(mapper::toDto);
+        }
+
+        Pageable head = ShardedPages.headOf(pageable, maxScatterRows);
+        List<ShardedPages.Slice<ShardedOrderItem>> slices = shardTemplate.readAll(shard -> {
+            Page<OrderItem> page = orderItemRepository.findAll(head);
+            List<ShardedOrderItem> rows = page.getContent().stream()
+                    .map(orderItem -> new ShardedOrderItem(orderItem, mapper.toDto(orderItem)))
+                    .toList();
+            return new ShardedPages.Slice<>(rows, page.getTotalElements());
+        });
+        return ShardedPages.merge(slices, pageable, ShardedOrderItem::orderItem).map(ShardedOrderItem::dto);
+    }
+
+    private record ShardedOrderItem(OrderItem orderItem, OrderItemDto dto) {}
+
+    // Заказ блокируется до загрузки позиции: иначе её ленивый order уже был бы в сессии со старым статусом,
+    // и touch записал бы его поверх отмены StaleOrderSweeper
+    private void lockOrderOf(Long orderItemId) {
+        Long orderId = orderItemRepository.findOrderIdById(orderItemId)
+                .orElseThrow(() -> new NoSuchElementException("OrderItem not found"));
+        orderRepository.findActiveByIdForUpdate(orderId)
+                .orElseThrow(() -> new NoSuchElementException("Order not found"));
+    }
+
+    // Позиции входят в ответ заказа -> его version (и ETag) должен вырасти, даже если сумма не изменилась
+    private void touch(Order order) {
+        order.setUpdatedAt(LocalDateTime.now());
+        orderCacheInvalidator.invalidateAfterCommit(order);
     }
 
     private void validateCreateUpdateDto(OrderItemCreateUpdateDto dto) {
@@ -1,22 +1,45 @@
 package com.services;
 
+import com.cache.CachedOrder;
+import com.cache.OrderCacheInvalidator;
+import com.cache.OrderNearCache;
 import com.checker.AccessChecker;
+import com.concurrent.Fork;
 import com.dtos.UserInfoDto;
+import com.dtos.request.ChangeCursor;
 import com.dtos.request.OrderCreateUpdateDto;
+import com.dtos.request.OrderReadOptions;
+import com.dtos.request.OrderSearchFilter;
+import com.dtos.response.EstimatedPage;
+import com.dtos.response.OrderChangeDto;
+import com.dtos.response.OrderChangesResponse;
+import com.dtos.response.OrderLookupResult;
+import com.dtos.response.OrderDto;
 import com.dtos.response.OrderItemDto;
 import com.dtos.response.OrderWithUserDto;
+import com.dtos.response.VersionedOrder;
 import com.entities.Item;
 import com.entities.Order;
 import com.entities.OrderItem;
+import com.enums.LookupStatus;
 import com.enums.OrderStatus;
+import com.etag.ETags;
 import com.fsm.OrderStatusTransitions;
 import com.mappers.OrderItemMapper;
 import com.mappers.OrderMapper;
 import com.repositories.ItemRep;
+import com.repositories.OrderCountEstimator;
 import com.repositories.OrderRep;
+import com.repositories.OrderVersionView;
+import com.routing.ShardRouter;
+import com.routing.ShardTemplate;
+import com.routing.ShardedPages;
 import com.specifications.OrderServiceSpecifications;
+import com.trending.TopItemsTracker;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -25,9 +48,17 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 @Service
 @Log4j2
@@ -40,9 +71,35 @@ public class OrderService {
     private final AccessChecker accessChecker;
     private final OrderItemMapper orderItemMapper;
     private final OrderCalculationService orderCalculationService;
+    private final OrderNearCache orderNearCache;
+    private final OrderCacheInvalidator orderCacheInvalidator;
+    private final OrderCountEstimator orderCountEstimator;
+    private final TopItemsTracker topItemsTracker;
+    private final ShardRouter shardRouter;
+    private final ShardTemplate shardTemplate;
+
+    // Глубина страницы при scatter-gather: каждый шард читает offset + size строк
+    @Value("${orders.sharding.max-scatter-rows:10000}")
+    private long maxScatterRows;
+
+    @Value("${orders.changes.max-limit:1000}")
+    private int maxChangesLimit;
+
+    @Value("${orders.lookup.max-ids:500}")
+    private int maxLookupIds;
+
+    @Value("${orders.lookup.user-concurrency:4}")
+    private int lookupUserConcurrency;
+
+    // estimate=true: если планировщик ждёт меньше строк, точный COUNT(*) всё ещё дешёвый
+    @Value("${orders.search.exact-count-threshold:10000}")
+    private long exactCountThreshold;
+
+    // Виртуальные потоки: блокирующий вызов UserService не держит платформенный поток
+    private final ExecutorService userLookupExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     @Autowired
-    public OrderService(OrderRep orderRepository, ItemRep itemRepository, OrderMapper mapper, UserServiceClient userServiceClient, AccessChecker accessChecker, OrderItemMapper orderItemMapper, OrderCalculationService orderCalculationService) {
+    public OrderService(OrderRep orderRepository, ItemRep itemRepository, OrderMapper mapper, UserServiceClient userServiceClient, AccessChecker accessChecker, OrderItemMapper orderItemMapper, OrderCalculationService orderCalculationService, OrderNearCache orderNearCache, OrderCacheInvalidator orderCacheInvalidator, OrderCountEstimator orderCountEstimator, TopItemsTracker topItemsTracker, ShardRouter shardRouter, ShardTemplate shardTemplate) {
         this.orderRepository = orderRepository;
         this.itemRepository = itemRepository;
         this.mapper = mapper;
@@ -50,15 +107,22 @@ public class OrderService {
         this.accessChecker = accessChecker;
         this.orderItemMapper = orderItemMapper;
         this.orderCalculationService = orderCalculationService;
+        this.orderNearCache = orderNearCache;
+        this.orderCacheInvalidator = orderCacheInvalidator;
+        this.orderCountEstimator = orderCountEstimator;
+        this.topItemsTracker = topItemsTracker;
+        this.shardRouter = shardRouter;
+        this.shardTemplate = shardTemplate;
     }
 
     @Transactional
     public OrderWithUserDto createOrder(OrderCreateUpdateDto dto, Long requesterId, Set<String> roles) {
 
         accessChecker.checkUserAccess(requesterId, requesterId, roles);
+        shardRouter.bindUser(requesterId);
 
         UserInfoDto user = userServiceClient.getUserById(requesterId, requesterId, roles);
-        log.info("USER FROM USER SERVICE: {}", user);
+        log.debug("Creating order for user {}", requesterId);
 
         if (user == null || !Boolean.TRUE.equals(user.getActive())) {
             throw new IllegalStateException("Cannot create order for inactive or unknown user");
@@ -78,6 +142,7 @@ public class OrderService {
         orderCalculationService.updateTotal(orderEntity);
 
         orderEntity = orderRepository.save(orderEntity);
+        topItemsTracker.recordAfterCommit(TopItemsTracker.quantitiesOf(items));
 
         return new OrderWithUserDto(mapper.toDto(orderEntity), user);
     }
@@ -86,61 +151,387 @@ public class OrderService {
     public OrderWithUserDto updateStatus(Long id, OrderStatus newStatus,
                                          Long requesterId, Set<String> roles) {
 
-        Order order = orderRepository.findByIdAndDeletedFalse(id)
+        // Как и раньше: нет заказа -> 404 для любого, и только потом проверка ADMIN
+        shardRouter.bindOrder(id);
+        Order order = orderRepository.findActiveByIdForUpdate(id)
                 .orElseThrow(() -> new NoSuchElementException("Order not found"));
 
         // Только ADMIN
         accessChecker.checkAdminAccess(roles);
 
-        OrderStatus current = order.getStatus();
+        // Владелец известен после загрузки: UserService отвечает, пока проверяем переход и пишем в БД.
+        // В подзадачу - только id: сущность привязана к сессии этого потока
+        Long ownerId = order.getUserId();
+        Fork<UserInfoDto> owner = Fork.of(userLookupExecutor,
+                () -> userServiceClient.getUserById(ownerId, requesterId, roles));
+        try {
+            checkTransition(order.getStatus(), newStatus);
+
+            // UserService уже ответил ошибкой -> в БД не пишем
+            owner.throwIfFailed();
+            order.setStatus(newStatus);
+            orderRepository.saveAndFlush(order);
+
+            // Ошибка владельца здесь откатывает транзакцию: инвалидацию регистрируем только после join
+            UserInfoDto user = owner.join();
+            orderCacheInvalidator.invalidateAfterCommit(order);
+
+            return new OrderWithUserDto(mapper.toDto(order), user);
+        } finally {
+            owner.cancel();
+        }
+    }
+
+    // Для сервисов (Kafka payment-событий, /internal/orders): без пользователя-инициатора и без данных владельца
+    @Transactional
+    public OrderDto updateStatusInternal(Long id, OrderStatus newStatus) {
+        shardRouter.bindOrder(id);
+        Order order = orderRepository.findActiveByIdForUpdate(id)
+                .orElseThrow(() -> new NoSuchElementException("Order not found"));
+
+        checkTransition(order.getStatus(), newStatus);
+        order.setStatus(newStatus);
+        orderRepository.saveAndFlush(order);
+        orderCacheInvalidator.invalidateAfterCommit(order);
+
+        return mapper.toDto(order);
+    }
 
+    private static void checkTransition(OrderStatus current, OrderStatus newStatus) {
         if (!OrderStatusTransitions.canTransition(current, newStatus)) {
             throw new IllegalStateException(
                     "Invalid status transition: " + current + " → " + newStatus
             );
         }
+    }
 
-        order.setStatus(newStatus);
-        orderRepository.save(order);
+    @Transactional(readOnly = true)
+    public OrderWithUserDto getOrderById(Long id, Long requesterId, Set<String> roles) {
+        return getOrderById(id, requesterId, roles, OrderReadOptions.FULL);
+    }
 
-        UserInfoDto user = userServiceClient.getUserById(order.getUserId(), requesterId, roles);
-        return new OrderWithUserDto(mapper.toDto(order), user);
+    @Transactional(readOnly = true)
+    public OrderWithUserDto getOrderById(Long id, Long requesterId, Set<String> roles, OrderReadOptions options) {
+        return getVersionedOrderById(id, requesterId, roles, options).getOrder();
     }
 
     @Transactional(readOnly = true)
-    public OrderWithUserDto getOrderById(Long id, Long requesterId, Set<String> roles) {
-        Order order = orderRepository.findByIdAndDeletedFalse(id)
+    public VersionedOrder getVersionedOrderById(Long id, Long requesterId, Set<String> roles, OrderReadOptions options) {
+        shardRouter.bindOrder(id);
+
+        // Для USER владелец = requester, поэтому его данные тянем параллельно с запросом в БД.
+        // ADMIN может смотреть чужой заказ -> владельца узнаём только после загрузки
+        Fork<UserInfoDto> requesterUser = options.isIncludeUser() && accessChecker.isOwnerOnly(roles)
+                ? Fork.of(userLookupExecutor, () -> userServiceClient.getUserById(requesterId, requesterId, roles))
+                : null;
+        try {
+            Long ownerId;
+            OrderDto orderDto;
+            long version;
+
+            CachedOrder cached = orderNearCache.get(id);
+            if (cached != null) {
+                ownerId = cached.getUserId();
+                accessChecker.checkUserAccess(ownerId, requesterId, roles);
+                orderDto = options.isIncludeItems() ? cached.getOrder() : cached.getOrderWithoutItems();
+                version = cached.getVersion();
+            } else {
+                Order order = orderRepository.findByIdAndDeletedFalse(id)
+                        .orElseThrow(() -> new NoSuchElementException("Order not found"));
+
+                ownerId = order.getUserId();
+                accessChecker.checkUserAccess(ownerId, requesterId, roles);
+                version = OrderNearCache.versionOf(order.getVersion());
+
+                // В кэш кладём только полный DTO
+                if (options.isIncludeItems()) {
+                    orderDto = mapper.toDto(order);
+                    orderNearCache.put(ownerId, orderDto, version);
+                } else {
+                    orderDto = mapper.toDtoWithoutItems(order);
+                }
+            }
+
+            UserInfoDto user;
+            if (requesterUser != null) {
+                user = requesterUser.join();
+            } else {
+                user = options.isIncludeUser() ? userServiceClient.getUserById(ownerId, requesterId, roles) : null;
+            }
+            return new VersionedOrder(new OrderWithUserDto(orderDto, user), version);
+        } finally {
+            if (requesterUser != null) requesterUser.cancel();
+        }
+    }
+
+    // Несколько заказов за раз (внутренний API): чужие и несуществующие просто пропускаются
+    @Transactional(readOnly = true)
+    public List<OrderDto> getOrdersByIds(List<Long> ids, Long requesterId, Set<String> roles, OrderReadOptions options) {
+        accessChecker.checkUserAccess(requesterId, requesterId, roles);
+
+        List<Long> uniqueIds = uniqueLookupIds(ids);
+        Map<Long, LoadedOrder> loaded = loadOrders(uniqueIds, options.isIncludeItems());
+
+        return uniqueIds.stream()
+                .map(loaded::get)
+                .filter(order -> order != null && accessChecker.hasUserAccess(order.userId(), requesterId, roles))
+                .map(LoadedOrder::order)
+                .toList();
+    }
+
+    // POST /orders/lookup: ответ на каждый запрошенный id в исходном порядке, UserService - по разу на владельца
+    @Transactional(readOnly = true)
+    public List<OrderLookupResult> lookupOrders(List<Long> ids, Long requesterId, Set<String> roles, OrderReadOptions options) {
+        accessChecker.checkUserAccess(requesterId, requesterId, roles);
+
+        Map<Long, LoadedOrder> loaded = loadOrders(uniqueLookupIds(ids), options.isIncludeItems());
+
+        Map<Long, UserInfoDto> users = options.isIncludeUser()
+                ? loadUsers(loaded.values().stream()
+                        .map(LoadedOrder::userId)
+                        .filter(userId -> accessChecker.hasUserAccess(userId, requesterId, roles))
+                        .collect(Collectors.toSet()), requesterId, roles)
+                : Map.of();
+
+        List<OrderLookupResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            LoadedOrder order = id == null ? null : loaded.get(id);
+            // чужой заказ неотличим от несуществующего: перебором id не узнать, какие есть
+            if (order == null || !accessChecker.hasUserAccess(order.userId(), requesterId, roles)) {
+                results.add(new OrderLookupResult(id, LookupStatus.NOT_FOUND, null));
+            } else {
+                results.add(new OrderLookupResult(id, LookupStatus.FOUND,
+                        new OrderWithUserDto(order.order(), users.get(order.userId()))));
+            }
+        }
+        return results;
+    }
+
+    private List<Long> uniqueLookupIds(List<Long> ids) {
+        if (ids == null) return List.of();
+        if (ids.size() > maxLookupIds) {
+            throw new IllegalArgumentException("At most " + maxLookupIds + " ids per request");
+        }
+        return ids.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    // Попадания near cache + один SELECT ... WHERE id IN (...) по промахам (с позициями - тем же запросом)
+    private Map<Long, LoadedOrder> loadOrders(List<Long> ids, boolean includeItems) {
+        Map<Long, LoadedOrder> loaded = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+
+        for (Long id : ids) {
+            CachedOrder cached = orderNearCache.get(id);
+            if (cached == null) {
+                misses.add(id);
+            } else {
+                OrderDto orderDto = includeItems ? cached.getOrder() : cached.getOrderWithoutItems();
+                loaded.put(id, new LoadedOrder(cached.getUserId(), orderDto));
+            }
+        }
+
+        if (misses.isEmpty()) return loaded;
+
+        // По запросу на шард; без шардирования - один запрос в текущей транзакции
+        Map<Integer, List<Long>> missesByShard = misses.stream().collect(Collectors.groupingBy(shardRouter::shardOfOrder));
+        missesByShard.forEach((shard, shardIds) -> shardTemplate.read(shard, () -> loadFromDb(shardIds, includeItems))
+                .forEach(order -> loaded.put(order.order().getId(), order)));
+        return loaded;
+    }
+
+    private List<LoadedOrder> loadFromDb(List<Long> ids, boolean includeItems) {
+        List<Order> orders = includeItems
+                ? orderRepository.findWithItemsByIdInAndDeletedFalse(ids)
+                : orderRepository.findAllByIdInAndDeletedFalse(ids);
+
+        List<LoadedOrder> loaded = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            OrderDto orderDto;
+            if (includeItems) {
+                orderDto = mapper.toDto(order);
+                orderNearCache.put(order.getUserId(), orderDto, OrderNearCache.versionOf(order.getVersion()));
+            } else {
+                orderDto = mapper.toDtoWithoutItems(order);
+            }
+            loaded.add(new LoadedOrder(order.getUserId(), orderDto));
+        }
+        return loaded;
+    }
+
+    // Параллельно на виртуальных потоках, но не больше lookup.user-concurrency вызовов на запрос:
+    // иначе 500 владельцев разом упираются в bulkhead списка заказов и почти все получают fallback
+    private Map<Long, UserInfoDto> loadUsers(Set<Long> userIds, Long requesterId, Set<String> roles) {
+        Semaphore permits = new Semaphore(lookupUserConcurrency);
+        Map<Long, Fork<UserInfoDto>> forks = new HashMap<>();
+        try {
+            for (Long userId : userIds) {
+                forks.put(userId, Fork.of(userLookupExecutor, () -> {
+                    permits.acquire();
+                    try {
+                        return userServiceClient.getUserByIdForAdminList(userId, requesterId, roles);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            Map<Long, UserInfoDto> users = new HashMap<>();
+            forks.forEach((userId, fork) -> {
+                UserInfoDto user = fork.join();
+                if (user != null) users.put(userId, user);
+            });
+            return users;
+        } finally {
+            forks.values().forEach(Fork::cancel);
+        }
+    }
+
+    private record LoadedOrder(Long userId, OrderDto order) {}
+
+    @Transactional(readOnly = true)
+    public String getOrderETag(Long id, Long requesterId, Set<String> roles) {
+        return ETags.of(getOrderVersion(id, requesterId, roles), ETags.selectorOf(null, null));
+    }
+
+    // Один индексный запрос без позиций и без похода в UserService: хватает для 304
+    @Transactional(readOnly = true)
+    public long getOrderVersion(Long id, Long requesterId, Set<String> roles) {
+        shardRouter.bindOrder(id);
+        OrderVersionView version = orderRepository.findVersionById(id)
                 .orElseThrow(() -> new NoSuchElementException("Order not found"));
 
-        accessChecker.checkUserAccess(order.getUserId(), requesterId, roles);
+        accessChecker.checkUserAccess(version.getUserId(), requesterId, roles);
 
-        UserInfoDto user = userServiceClient.getUserById(order.getUserId(), requesterId, roles);
-        return new OrderWithUserDto(mapper.toDto(order), user);
+        return OrderNearCache.versionOf(version.getVersion());
     }
 
     @Transactional(readOnly = true)
-    public Page<OrderWithUserDto> getAllOrders(List<OrderStatus> statuses, LocalDateTime start, LocalDateTime end,
-                                               Pageable pageable, Long requesterId, Set<String> roles) {
+    public Page<OrderWithUserDto> getAllOrders(OrderSearchFilter filter, Pageable pageable, Long requesterId,
+                                               Set<String> roles, OrderReadOptions options) {
+
+        // доступ до валидации: не-админ не узнаёт ничего о правилах фильтров
+        accessChecker.checkAdminAccess(roles);
+
+        if (filter.getMinTotal() != null && filter.getMaxTotal() != null
+                && filter.getMinTotal().compareTo(filter.getMaxTotal()) > 0) {
+            throw new IllegalArgumentException("minTotal must not be greater than maxTotal");
+        }
+
+        Specification<Order> spec = OrderServiceSpecifications.matching(filter);
+
+        if (shardRouter.isEnabled()) {
+            return getAllOrdersSharded(spec, filter, pageable, requesterId, roles, options);
+        }
 
-        Specification<Order> spec = OrderServiceSpecifications.notDeleted();
+        if (!filter.isEstimate()) {
+            Page<Order> page = orderRepository.findAll(spec, pageable);
+            return page.map(order -> toAdminListResponse(order, requesterId, roles, options));
+        }
 
-        if (statuses != null && !statuses.isEmpty()) spec = spec.and(OrderServiceSpecifications.hasStatuses(statuses));
-        if (start != null && end != null && !start.isAfter(end)) spec = spec.and(OrderServiceSpecifications.createdBetween(start, end));
+        // На больших выборках COUNT(*) дороже самой страницы: берём оценку планировщика
+        long estimated = orderCountEstimator.estimate(filter);
+        boolean useEstimate = estimated >= exactCountThreshold;
+        long total = useEstimate ? estimated : orderRepository.count(spec);
 
+        List<OrderWithUserDto> content = orderRepository.findPageContent(spec, pageable).stream()
+                .map(order -> toAdminListResponse(order, requesterId, roles, options))
+                .toList();
+        return new EstimatedPage<>(content, pageable, total, useEstimate);
+    }
+
+    // Scatter-gather: каждый шард отдаёт первые offset + size строк и свой count, слияние по pageable.sort.
+    // Позиции маппим внутри транзакции шарда, UserService - только для строк итоговой страницы
+    private Page<OrderWithUserDto> getAllOrdersSharded(Specification<Order> spec, OrderSearchFilter filter, Pageable pageable,
+                                                       Long requesterId, Set<String> roles, OrderReadOptions options) {
+        Pageable head = ShardedPages.headOf(pageable, maxScatterRows);
+        AtomicBoolean estimated = new AtomicBoolean();
+
+        List<ShardedPages.Slice<ShardedOrder>> slices = shardTemplate.readAll(shard -> {
+            long shardEstimate = filter.isEstimate() ? orderCountEstimator.estimate(filter) : 0;
+            boolean useEstimate = filter.isEstimate() && shardEstimate >= exactCountThreshold;
+            if (useEstimate) estimated.set(true);
+            long total = useEstimate ? shardEstimate : orderRepository.count(spec);
+
+            List<ShardedOrder> rows = orderRepository.findPageContent(spec, head).stream()
+                    .map(order -> new ShardedOrder(order,
+                            options.isIncludeItems() ? mapper.toDto(order) : mapper.toDtoWithoutItems(order)))
+                    .toList();
+            return new ShardedPages.Slice<>(rows, total);
+        });
+
+        Page<OrderWithUserDto> page = ShardedPages.merge(slices, pageable, ShardedOrder::order)
+                .map(row -> toAdminListResponse(row.dto(), row.order().getUserId(), requesterId, roles, options));
+        return filter.isEstimate()
+                ? new EstimatedPage<>(page.getContent(), pageable, page.getTotalElements(), estimated.get())
+                : page;
+    }
+
+    private record ShardedOrder(Order order, OrderDto dto) {}
+
+    @Transactional(readOnly = true)
+    public OrderChangesResponse getChanges(String since, int limit, Set<String> roles) {
         accessChecker.checkAdminAccess(roles);
 
-        Page<Order> page = orderRepository.findAll(spec, pageable);
+        if (limit < 1 || limit > maxChangesLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxChangesLimit);
+        }
 
-        return page.map(order -> {
-            UserInfoDto user = userServiceClient.getUserById(order.getUserId(), requesterId, roles);
-            return new OrderWithUserDto(mapper.toDto(order), user);
+        ChangeCursor cursor = ChangeCursor.parse(since);
+
+        List<List<ShardedChange>> perShard = shardTemplate.readAll(shard -> {
+            ChangeCursor.Position from = cursor.positionOf(shard);
+            return orderRepository.findChangesAfter(from.changeXid(), from.id(), limit).stream()
+                    .map(order -> new ShardedChange(mapper.toChangeDto(order),
+                            new ChangeCursor.Position(order.getChangeXid(), order.getId())))
+                    .toList();
         });
+
+        // Порядок xid между шардами не определён: берём по строке с каждого шарда по очереди, пока не наберём limit
+        List<OrderChangeDto> changes = new ArrayList<>();
+        int[] taken = new int[perShard.size()];
+        boolean progress = true;
+        while (progress && changes.size() < limit) {
+            progress = false;
+            for (int shard = 0; shard < perShard.size() && changes.size() < limit; shard++) {
+                if (taken[shard] < perShard.get(shard).size()) {
+                    changes.add(perShard.get(shard).get(taken[shard]++).dto());
+                    progress = true;
+                }
+            }
+        }
+
+        ChangeCursor next = cursor;
+        boolean hasMore = false;
+        for (int shard = 0; shard < perShard.size(); shard++) {
+            List<ShardedChange> rows = perShard.get(shard);
+            if (taken[shard] > 0) {
+                next = next.with(shard, rows.get(taken[shard] - 1).position());
+            }
+            hasMore |= taken[shard] < rows.size() || rows.size() == limit;
+        }
+        return new OrderChangesResponse(changes, next.encode(), hasMore);
+    }
+
+    private record ShardedChange(OrderChangeDto dto, ChangeCursor.Position position) {}
+
+    // Пропускаем сам поход в UserService / загрузку позиций, а не отбрасываем результат после
+    private OrderWithUserDto toAdminListResponse(Order order, Long requesterId, Set<String> roles, OrderReadOptions options) {
+        OrderDto orderDto = options.isIncludeItems() ? mapper.toDto(order) : mapper.toDtoWithoutItems(order);
+        return toAdminListResponse(orderDto, order.getUserId(), requesterId, roles, options);
+    }
+
+    private OrderWithUserDto toAdminListResponse(OrderDto orderDto, Long userId, Long requesterId, Set<String> roles,
+                                                 OrderReadOptions options) {
+        UserInfoDto user = options.isIncludeUser()
+                ? userServiceClient.getUserByIdForAdminList(userId, requesterId, roles)
+                : null;
+        return new OrderWithUserDto(orderDto, user);
     }
 
     @Transactional
     public OrderWithUserDto updateOrder(Long id, OrderCreateUpdateDto dto, Long requesterId, Set<String> roles) {
 
-        Order orderEntity = orderRepository.findByIdAndDeletedFalse(id)
+        shardRouter.bindOrder(id);
+        Order orderEntity = orderRepository.findActiveByIdForUpdate(id)
                 .orElseThrow(() -> new NoSuchElementException("Order not found"));
 
         accessChecker.checkUserAccess(orderEntity.getUserId(), requesterId, roles);
@@ -158,6 +549,8 @@ public class OrderService {
             newItems.add(orderItem);
         }
 
+        Map<Long, Long> quantitiesBefore = TopItemsTracker.quantitiesOf(orderEntity.getOrderItems());
+
         // Очищаем старые позиции и добавляем новые в существующую коллекцию
         orderEntity.getOrderItems().clear();
         for (OrderItem orderItem : newItems) {
@@ -168,8 +561,14 @@ public class OrderService {
         // Пересчёт totalPrice
         orderCalculationService.updateTotal(orderEntity);
 
+        // Позиции - обратная сторона связи: при той же сумме строка orders не грязная, и Hibernate
+        // не увеличит version, а от него ETag и near cache (как OrderItemService.touch)
+        orderEntity.setUpdatedAt(LocalDateTime.now());
+
         // Сохраняем заказ
         orderEntity = orderRepository.save(orderEntity);
+        orderCacheInvalidator.invalidateAfterCommit(orderEntity);
+        topItemsTracker.recordAfterCommit(TopItemsTracker.increaseOf(quantitiesBefore, TopItemsTracker.quantitiesOf(newItems)));
 
         UserInfoDto user = userServiceClient.getUserById(orderEntity.getUserId(), requesterId, roles);
 
@@ -178,12 +577,19 @@ public class OrderService {
 
     @Transactional
     public void deleteOrder(Long id, Long requesterId, Set<String> roles) {
-        Order order = orderRepository.findByIdAndDeletedFalse(id)
+        shardRouter.bindOrder(id);
+        Order order = orderRepository.findActiveByIdForUpdate(id)
                 .orElseThrow(() -> new NoSuchElementException("Order not found"));
 
         accessChecker.checkUserAccess(order.getUserId(), requesterId, roles);
 
         order.setDeleted(true);
         orderRepository.save(order);
+        orderCacheInvalidator.invalidateAfterCommit(order);
+    }
+
+    @PreDestroy
+    public void shutdownUserLookups() {
+        userLookupExecutor.shutdownNow();
     }
 }
@@ -1,7 +1,11 @@
 package com.services;
 
 import com.dtos.UserInfoDto;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,7 +13,9 @@ import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Set;
 
 @Service
@@ -17,12 +23,35 @@ import java.util.Set;
 @Log4j2
 public class UserServiceClient {
 
+    // Интерактивные чтения и обогащение админских списков изолированы друг от друга:
+    // медленный UserService не может занять все потоки и уронить чтение одного заказа
+    public static final String INTERACTIVE = "userServiceInteractive";
+    public static final String ADMIN_LIST = "userServiceAdminList";
+
     private final WebClient.Builder webClientBuilder;
+    private final TimeLimiterRegistry timeLimiterRegistry;
 
     @Value("${user.service.base-url}")
     private String userServiceBaseUrl;
 
+    // Открывает соединение в общем пуле reactor-netty до первого реального запроса; ответ не важен
+    public void warmUp() {
+        webClientBuilder.baseUrl(userServiceBaseUrl).build()
+                .head()
+                .exchangeToMono(response -> response.releaseBody())
+                .timeout(Duration.ofSeconds(2))
+                .onErrorResume(ex -> {
+                    log.warn("UserService warm-up request failed: {}", ex.getMessage());
+                    return Mono.empty();
+                })
+                .block();
+    }
+
+    // Fallback только на CircuitBreaker: аспекты bulkhead/rate limiter работают внутри него, и их fallback
+    // на Throwable глотал бы ошибки до того, как их увидит breaker. Отказы bulkhead/rate limiter breaker
+    // не считает (ignoreExceptions в properties), но fallback на них срабатывает так же
     @CircuitBreaker(name = "userServiceCircuitBreaker", fallbackMethod = "fallbackUser")
+    @Bulkhead(name = INTERACTIVE)
     public UserInfoDto getUserByEmail(String email, Long requesterId, Set<String> roles) {
         WebClient client = webClientBuilder.baseUrl(userServiceBaseUrl).build();
 
@@ -42,6 +71,7 @@ public class UserServiceClient {
                                 })
                 )
                 .bodyToMono(UserInfoDto.class)
+                .transformDeferred(TimeLimiterOperator.of(timeLimiterRegistry.timeLimiter(INTERACTIVE)))
                 .block();
     }
 
@@ -56,7 +86,20 @@ public class UserServiceClient {
     }
 
     @CircuitBreaker(name = "userServiceCircuitBreaker", fallbackMethod = "fallbackUserById")
+    @Bulkhead(name = INTERACTIVE)
     public UserInfoDto getUserById(Long userId, Long requesterId, Set<String> roles) {
+        return fetchUserById(userId, requesterId, roles, INTERACTIVE);
+    }
+
+    // Обогащение страниц getAllOrders: свой, меньший bulkhead и лимит запросов в секунду
+    @CircuitBreaker(name = "userServiceCircuitBreaker", fallbackMethod = "fallbackUserById")
+    @RateLimiter(name = ADMIN_LIST)
+    @Bulkhead(name = ADMIN_LIST)
+    public UserInfoDto getUserByIdForAdminList(Long userId, Long requesterId, Set<String> roles) {
+        return fetchUserById(userId, requesterId, roles, ADMIN_LIST);
+    }
+
+    private UserInfoDto fetchUserById(Long userId, Long requesterId, Set<String> roles, String policy) {
         try {
             WebClient client = webClientBuilder
                     .baseUrl(userServiceBaseUrl)
@@ -78,6 +121,7 @@ public class UserServiceClient {
                                     })
                     )
                     .bodyToMono(UserInfoDto.class)
+                    .transformDeferred(TimeLimiterOperator.of(timeLimiterRegistry.timeLimiter(policy)))
                     .block();
 
             if (user == null) {
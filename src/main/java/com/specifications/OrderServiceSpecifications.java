@@ -1,14 +1,33 @@
 package com.specifications;
 
+import com.dtos.request.OrderSearchFilter;
 import com.entities.Order;
+import com.entities.OrderItem;
 import com.enums.OrderStatus;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 public class OrderServiceSpecifications {
 
+    // GET /orders. Те же условия в SQL строит OrderCountEstimator (EXPLAIN) - совпадение держит OrderFilterAgreementTest
+    public static Specification<Order> matching(OrderSearchFilter filter) {
+        Specification<Order> spec = notDeleted();
+
+        if (filter.hasStatuses()) spec = spec.and(hasStatuses(filter.getStatuses()));
+        if (filter.hasCreatedRange()) spec = spec.and(createdBetween(filter.getStart(), filter.getEnd()));
+        if (filter.getUserId() != null) spec = spec.and(hasUserId(filter.getUserId()));
+        if (filter.getItemId() != null) spec = spec.and(containsItem(filter.getItemId()));
+        if (filter.hasTotalRange()) spec = spec.and(totalPriceBetween(filter.getMinTotal(), filter.getMaxTotal()));
+
+        return spec;
+    }
+
+    // created_at - ключ партиционирования orders: предикат по голой колонке даёт partition pruning
     public static Specification<Order> createdBetween(LocalDateTime start, LocalDateTime end) {
         return (root, query, cb) -> cb.between(root.get("createdAt"), start, end);
     }
@@ -20,4 +39,29 @@ public class OrderServiceSpecifications {
     public static Specification<Order> notDeleted() {
         return (root, query, cb) -> cb.isFalse(root.get("deleted"));
     }
+
+    public static Specification<Order> hasUserId(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    // EXISTS, а не join: заказ с несколькими такими позициями не дублируется, count без DISTINCT
+    public static Specification<Order> containsItem(Long itemId) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<OrderItem> orderItem = subquery.from(OrderItem.class);
+            subquery.select(cb.literal(1L))
+                    .where(cb.equal(orderItem.get("order"), root),
+                            cb.equal(orderItem.get("item").get("id"), itemId));
+            return cb.exists(subquery);
+        };
+    }
+
+    // любая из границ может быть null
+    public static Specification<Order> totalPriceBetween(BigDecimal min, BigDecimal max) {
+        return (root, query, cb) -> {
+            if (min != null && max != null) return cb.between(root.get("totalPrice"), min, max);
+            if (min != null) return cb.greaterThanOrEqualTo(root.get("totalPrice"), min);
+            return cb.lessThanOrEqualTo(root.get("totalPrice"), max);
+        };
+    }
 }
@@ -0,0 +1,58 @@
+package com.trending;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// depth x width счётчиков; оценка = минимум по строкам, ошибка только в большую сторону.
+// Обновление - один getAndAdd на строку, без блокировок
+class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL
+    };
+
+    private final int depth;
+    private final int widthMask;
+    private final AtomicLongArray counters;
+
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("depth must be in 1.." + SEEDS.length);
+        }
+        if (width < 1 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("width must be a power of two");
+        }
+        this.depth = depth;
+        this.widthMask = width - 1;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    // возвращает оценку после добавления - по ней решаем, брать ли ключ в кандидаты top-K
+    long add(long key, long delta) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.addAndGet(index(row, key), delta));
+        }
+        return estimate;
+    }
+
+    long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, key)));
+        }
+        return estimate;
+    }
+
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    private int index(int row, long key) {
+        long h = (key + SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 31;
+        return row * (widthMask + 1) + (int) (h & widthMask);
+    }
+}
@@ -0,0 +1,105 @@
+package com.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Кольцо из bucketCount корзин по bucketMillis: своя count-min sketch и свои кандидаты top-K на корзину.
+// Старая корзина переиспользуется при переходе в новый интервал, поэтому память фиксирована
+class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final int candidateCapacity;
+    private final Bucket[] buckets;
+
+    SlidingWindowCounter(int bucketCount, long bucketMillis, int sketchDepth, int sketchWidth, int candidateCapacity) {
+        this.bucketMillis = bucketMillis;
+        this.candidateCapacity = candidateCapacity;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket(sketchDepth, sketchWidth);
+        }
+    }
+
+    void add(long key, long delta, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        Bucket bucket = buckets[(int) (epoch % buckets.length)];
+        bucket.rotateTo(epoch);
+
+        long estimate = bucket.sketch.add(key, delta);
+        bucket.offerCandidate(key, estimate, candidateCapacity);
+    }
+
+    List<Map.Entry<Long, Long>> top(int limit, long nowMillis) {
+        long currentEpoch = nowMillis / bucketMillis;
+        List<Bucket> live = new ArrayList<>(buckets.length);
+        Set<Long> candidates = new HashSet<>();
+
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch > currentEpoch - buckets.length) {
+                live.add(bucket);
+                candidates.addAll(bucket.candidates.keySet());
+            }
+        }
+
+        List<Map.Entry<Long, Long>> totals = new ArrayList<>(candidates.size());
+        for (Long key : candidates) {
+            long total = 0;
+            for (Bucket bucket : live) {
+                total += bucket.sketch.estimate(key);
+            }
+            totals.add(Map.entry(key, total));
+        }
+
+        totals.sort(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder()));
+        return totals.size() > limit ? totals.subList(0, limit) : totals;
+    }
+
+    private static class Bucket {
+
+        private final CountMinSketch sketch;
+        private final ConcurrentHashMap<Long, Long> candidates = new ConcurrentHashMap<>();
+        // только ротация и подрезка кандидатов; обычные add его не берут
+        private final ReentrantLock maintenanceLock = new ReentrantLock();
+        private volatile long epoch = Long.MIN_VALUE;
+
+        Bucket(int sketchDepth, int sketchWidth) {
+            this.sketch = new CountMinSketch(sketchDepth, sketchWidth);
+        }
+
+        void rotateTo(long newEpoch) {
+            if (epoch == newEpoch) return;
+            maintenanceLock.lock();
+            try {
+                if (epoch != newEpoch) {
+                    sketch.clear();
+                    candidates.clear();
+                    epoch = newEpoch;
+                }
+            } finally {
+                maintenanceLock.unlock();
+            }
+        }
+
+        void offerCandidate(long key, long estimate, int capacity) {
+            candidates.put(key, estimate);
+            // даём вырасти до 2x и подрезаем до capacity тем, кто первым взял lock; остальные не ждут
+            if (candidates.size() > 2 * capacity && maintenanceLock.tryLock()) {
+                try {
+                    List<Map.Entry<Long, Long>> entries = new ArrayList<>(candidates.entrySet());
+                    entries.sort(Map.Entry.comparingByValue());
+                    for (int i = 0; i < entries.size() - capacity; i++) {
+                        candidates.remove(entries.get(i).getKey(), entries.get(i).getValue());
+                    }
+                } finally {
+                    maintenanceLock.unlock();
+                }
+            }
+        }
+    }
+}
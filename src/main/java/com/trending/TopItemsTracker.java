@@ -0,0 +1,92 @@
+package com.trending;
+
+import com.entities.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Продажи по позициям в окнах час/сутки без GROUP BY по order_items. Счёт по этой ноде
+@Component
+public class TopItemsTracker {
+
+    private final Map<TrendingWindow, SlidingWindowCounter> counters = new EnumMap<>(TrendingWindow.class);
+    private final int candidateCapacity;
+    private final LongSupplier clock;
+
+    @Autowired
+    public TopItemsTracker(@Value("${orders.trending.sketch-depth:4}") int sketchDepth,
+                           @Value("${orders.trending.sketch-width:2048}") int sketchWidth,
+                           @Value("${orders.trending.candidates:200}") int candidateCapacity) {
+        this(sketchDepth, sketchWidth, candidateCapacity, System::currentTimeMillis);
+    }
+
+    // clock - для тестов: окна сдвигаются без ожидания
+    TopItemsTracker(int sketchDepth, int sketchWidth, int candidateCapacity, LongSupplier clock) {
+        this.candidateCapacity = candidateCapacity;
+        this.clock = clock;
+        for (TrendingWindow window : TrendingWindow.values()) {
+            counters.put(window, new SlidingWindowCounter(window.getBucketCount(), window.getBucketMillis(),
+                    sketchDepth, sketchWidth, candidateCapacity));
+        }
+    }
+
+    // Только прирост количества (itemId -> +quantity) и только после коммита: откаченный заказ не в счёт
+    public void recordAfterCommit(Map<Long, Long> quantitiesByItem) {
+        if (quantitiesByItem.isEmpty()) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(quantitiesByItem);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(quantitiesByItem);
+            }
+        });
+    }
+
+    public static Map<Long, Long> quantitiesOf(Collection<OrderItem> orderItems) {
+        Map<Long, Long> quantities = new HashMap<>();
+        if (orderItems == null) return quantities;
+        for (OrderItem orderItem : orderItems) {
+            quantities.merge(orderItem.getItem().getId(), orderItem.getQuantity().longValue(), Long::sum);
+        }
+        return quantities;
+    }
+
+    // Для замены позиций: учитываем только то, что добавилось
+    public static Map<Long, Long> increaseOf(Map<Long, Long> before, Map<Long, Long> after) {
+        Map<Long, Long> increase = new HashMap<>();
+        after.forEach((itemId, quantity) -> {
+            long delta = quantity - before.getOrDefault(itemId, 0L);
+            if (delta > 0) increase.put(itemId, delta);
+        });
+        return increase;
+    }
+
+    public List<Map.Entry<Long, Long>> top(TrendingWindow window, int limit) {
+        if (limit < 1 || limit > candidateCapacity) {
+            throw new IllegalArgumentException("limit must be between 1 and " + candidateCapacity);
+        }
+        return counters.get(window).top(limit, clock.getAsLong());
+    }
+
+    private void record(Map<Long, Long> quantitiesByItem) {
+        long now = clock.getAsLong();
+        quantitiesByItem.forEach((itemId, quantity) -> {
+            if (quantity <= 0) return;
+            for (SlidingWindowCounter counter : counters.values()) {
+                counter.add(itemId, quantity, now);
+            }
+        });
+    }
+}
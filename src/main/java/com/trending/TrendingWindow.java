@@ -0,0 +1,24 @@
+package com.trending;
+
+import java.util.concurrent.TimeUnit;
+
+public enum TrendingWindow {
+    HOUR(60, TimeUnit.MINUTES.toMillis(1)),
+    DAY(24, TimeUnit.HOURS.toMillis(1));
+
+    private final int bucketCount;
+    private final long bucketMillis;
+
+    TrendingWindow(int bucketCount, long bucketMillis) {
+        this.bucketCount = bucketCount;
+        this.bucketMillis = bucketMillis;
+    }
+
+    int getBucketCount() {
+        return bucketCount;
+    }
+
+    long getBucketMillis() {
+        return bucketMillis;
+    }
+}
@@ -0,0 +1,26 @@
+package com.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// Входит в группу readiness: под получает трафик только после прогрева
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private volatile boolean completed;
+    private volatile long durationMs;
+
+    public void markCompleted(long durationMs) {
+        this.durationMs = durationMs;
+        this.completed = true;
+    }
+
+    @Override
+    public Health health() {
+        if (!completed) {
+            return Health.outOfService().withDetail("warmUp", "in progress").build();
+        }
+        return Health.up().withDetail("durationMs", durationMs).build();
+    }
+}
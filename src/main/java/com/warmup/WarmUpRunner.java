@@ -0,0 +1,145 @@
+package com.warmup;
+
+import com.dtos.request.OrderReadOptions;
+import com.dtos.request.OrderSearchFilter;
+import com.dtos.response.ItemDto;
+import com.dtos.response.OrderWithUserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routing.HikariPools;
+import com.services.ItemService;
+import com.services.OrderService;
+import com.services.UserServiceClient;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@Log4j2
+public class WarmUpRunner {
+
+    private static final Long SYSTEM_USER_ID = 0L;
+    private static final Set<String> SYSTEM_ROLES = Set.of("ROLE_ADMIN");
+    // без UserService: его прогреваем отдельно и не хотим портить статистику circuit breaker'а
+    private static final OrderReadOptions WITHOUT_USER = new OrderReadOptions(false, true);
+
+    private final DataSource dataSource;
+    private final UserServiceClient userServiceClient;
+    private final OrderService orderService;
+    private final ItemService itemService;
+    private final ObjectMapper objectMapper;
+    private final WarmUpHealthIndicator warmUpHealthIndicator;
+
+    @Value("${orders.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.warmup.iterations:50}")
+    private int iterations;
+
+    @Value("${orders.warmup.connections:10}")
+    private int connections;
+
+    @Autowired
+    public WarmUpRunner(DataSource dataSource, UserServiceClient userServiceClient, OrderService orderService,
+                        ItemService itemService, ObjectMapper objectMapper, WarmUpHealthIndicator warmUpHealthIndicator) {
+        this.dataSource = dataSource;
+        this.userServiceClient = userServiceClient;
+        this.orderService = orderService;
+        this.itemService = itemService;
+        this.objectMapper = objectMapper;
+        this.warmUpHealthIndicator = warmUpHealthIndicator;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+
+        if (enabled) {
+            runStep("connection pools", this::fillConnectionPools);
+            runStep("user service connection", userServiceClient::warmUp);
+            runStep("read paths", () -> {
+                for (int i = 0; i < iterations; i++) {
+                    exerciseReadPaths();
+                }
+            });
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        warmUpHealthIndicator.markCompleted(durationMs);
+        log.info("Warm-up completed in {} ms", durationMs);
+    }
+
+    // Ошибка прогрева не должна держать под неготовым вечно
+    private void runStep(String name, Runnable step) {
+        try {
+            step.run();
+        } catch (Exception ex) {
+            log.warn("Warm-up step '{}' failed: {}", name, ex.getMessage());
+        }
+    }
+
+    // LazyConnectionDataSourceProxy физическое соединение не открывает, а маршрутизатор без ShardContext
+    // ведёт только в шард 0 -> берём соединения прямо у каждого Hikari-пула (шарды и реплики)
+    void fillConnectionPools() {
+        List<HikariDataSource> pools = HikariPools.all(dataSource);
+        if (pools.isEmpty()) {
+            log.warn("No Hikari pool found behind {}, connection warm-up skipped", dataSource.getClass().getSimpleName());
+        }
+        pools.forEach(this::fillConnectionPool);
+    }
+
+    // Берём сразу N соединений, чтобы Hikari открыл их до трафика, и возвращаем в пул
+    private void fillConnectionPool(HikariDataSource pool) {
+        int target = Math.min(connections, pool.getMaximumPoolSize());
+        List<Connection> borrowed = new ArrayList<>();
+        try {
+            for (int i = 0; i < target; i++) {
+                borrowed.add(pool.getConnection());
+            }
+        } catch (Exception ex) {
+            log.warn("Could only pre-open {} of {} connections in {}: {}", borrowed.size(), target, pool.getPoolName(),
+                    ex.getMessage());
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close();
+                } catch (Exception ignored) {}
+            }
+        }
+    }
+
+    private void exerciseReadPaths() {
+        try {
+            Page<OrderWithUserDto> orders = orderService.getAllOrders(OrderSearchFilter.EMPTY, PageRequest.of(0, 20),
+                    SYSTEM_USER_ID, SYSTEM_ROLES, WITHOUT_USER);
+            objectMapper.writeValueAsBytes(orders);
+
+            for (OrderWithUserDto order : orders.getContent()) {
+                Long id = order.getOrder().getId();
+                orderService.getOrderETag(id, SYSTEM_USER_ID, SYSTEM_ROLES);
+                objectMapper.writeValueAsBytes(orderService.getOrderById(id, SYSTEM_USER_ID, SYSTEM_ROLES, WITHOUT_USER));
+            }
+
+            Page<ItemDto> items = itemService.getAllItems(PageRequest.of(0, 20), SYSTEM_USER_ID, SYSTEM_ROLES);
+            objectMapper.writeValueAsBytes(items);
+
+            for (ItemDto item : items.getContent()) {
+                itemService.getItemETag(item.getId(), SYSTEM_USER_ID, SYSTEM_ROLES);
+                objectMapper.writeValueAsBytes(itemService.getItem(item.getId(), SYSTEM_USER_ID, SYSTEM_ROLES));
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.cache;
+
+import com.dtos.response.OrderDto;
+import com.dtos.response.OrderItemDto;
+import com.enums.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderNearCacheTest {
+
+    private final OrderNearCache cache = new OrderNearCache(new SimpleMeterRegistry(), 100, 60);
+
+    @Test
+    void readersGetTheirOwnCopies() {
+        cache.put(7L, order(1L, 100L), 1);
+
+        OrderDto first = cache.get(1L).getOrder();
+        first.setStatus(OrderStatus.CANCELLED);
+        first.getOrderItems().get(0).setQuantity(99);
+        first.getOrderItems().add(new OrderItemDto(101L, 1, 1L, 6L));
+
+        OrderDto second = cache.get(1L).getOrder();
+        assertThat(second.getStatus()).isEqualTo(OrderStatus.NEW);
+        assertThat(second.getOrderItems()).hasSize(1);
+        assertThat(second.getOrderItems().get(0).getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void writerMutatingItsDtoAfterPutDoesNotLeakIntoTheCache() {
+        OrderDto written = order(2L, 200L);
+        cache.put(7L, written, 1);
+
+        written.setTotalPrice(BigDecimal.ZERO);
+        written.getOrderItems().clear();
+
+        OrderDto cached = cache.get(2L).getOrder();
+        assertThat(cached.getTotalPrice()).isEqualByComparingTo("20.00");
+        assertThat(cached.getOrderItems()).hasSize(1);
+    }
+
+    @Test
+    void withoutItemsCopyLeavesItemsOut() {
+        cache.put(7L, order(3L, 300L), 1);
+
+        assertThat(cache.get(3L).getOrderWithoutItems().getOrderItems()).isNull();
+        assertThat(cache.get(3L).getOrder().getOrderItems()).hasSize(1);
+    }
+
+    @Test
+    void newerVersionEvictsAndBlocksStalePut() {
+        cache.put(7L, order(4L, 400L), 3);
+
+        cache.invalidate(4L, 4);
+        assertThat(cache.get(4L)).isNull();
+
+        // читатель, загрузивший заказ до записи, не кладёт его обратно
+        cache.put(7L, order(4L, 400L), 3);
+        assertThat(cache.get(4L)).isNull();
+    }
+
+    private static OrderDto order(Long id, Long lineId) {
+        List<OrderItemDto> items = new ArrayList<>(List.of(new OrderItemDto(lineId, 2, id, 5L)));
+        return new OrderDto(id, OrderStatus.NEW, new BigDecimal("20.00"), false, items);
+    }
+}
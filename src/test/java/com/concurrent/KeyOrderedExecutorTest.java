@@ -0,0 +1,97 @@
+package com.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedExecutorTest {
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 1, 4);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.close();
+    }
+
+    @Test
+    void fullStripeNeverBlocksTheSubmitterAndReportsSaturation() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(1L, () -> await(release));
+
+        boolean saturated = false;
+        long started = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            saturated = executor.execute(1L, () -> { });
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1000);
+        assertThat(saturated).isTrue();
+        assertThat(executor.getInFlight()).isEqualTo(21);
+        release.countDown();
+    }
+
+    @Test
+    void drainCallbackFiresOnceWhenTheStripeEmptiesToHalf() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(1L, () -> await(release));
+        for (int i = 0; i < 5; i++) {
+            executor.execute(1L, () -> { });
+        }
+
+        AtomicInteger resumed = new AtomicInteger();
+        CountDownLatch drained = new CountDownLatch(1);
+        executor.whenDrained(1L, () -> {
+            resumed.incrementAndGet();
+            drained.countDown();
+        });
+        assertThat(resumed).hasValue(0);
+
+        release.countDown();
+        assertThat(drained.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitIdle();
+        assertThat(resumed).hasValue(1);
+    }
+
+    @Test
+    void drainCallbackRunsImmediatelyForAnAlreadyDrainedStripe() {
+        AtomicInteger resumed = new AtomicInteger();
+
+        executor.whenDrained(1L, resumed::incrementAndGet);
+
+        assertThat(resumed).hasValue(1);
+    }
+
+    @Test
+    void tasksOfOneKeyKeepSubmissionOrder() throws InterruptedException {
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int n = i;
+            executor.execute(7L, () -> seen.add(n));
+        }
+
+        awaitIdle();
+        assertThat(seen).isSorted().hasSize(100);
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        for (int i = 0; i < 100 && executor.getInFlight() > 0; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(executor.getInFlight()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
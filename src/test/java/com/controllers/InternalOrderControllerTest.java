@@ -0,0 +1,83 @@
+package com.controllers;
+
+import com.dtos.response.OrderDto;
+import com.enums.OrderStatus;
+import com.exceptionHandler.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.services.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class InternalOrderControllerTest {
+
+    private static final String TOKEN = "internal-secret";
+
+    @Mock
+    private OrderService orderService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new InternalOrderController(orderService, TOKEN))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                // как InternalApiConfig + JacksonConfig: CBOR и @JsonFilter без явного фильтра
+                .setMessageConverters(new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.cbor()
+                        .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                        .build()))
+                .build();
+    }
+
+    @Test
+    void wrongTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(get("/internal/orders/1").header(InternalOrderController.TOKEN_HEADER, "nope"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void missingTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(get("/internal/orders/1"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void statusUpdateUsesTheServicePathWithoutAUser() throws Exception {
+        when(orderService.updateStatusInternal(1L, OrderStatus.PROCESSING)).thenReturn(new OrderDto());
+
+        mockMvc.perform(put("/internal/orders/1/status")
+                        .header(InternalOrderController.TOKEN_HEADER, TOKEN)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(new CBORMapper().writeValueAsBytes(Map.of("status", "PROCESSING"))))
+                .andExpect(status().isOk());
+
+        verify(orderService).updateStatusInternal(1L, OrderStatus.PROCESSING);
+        verify(orderService, never()).updateStatus(anyLong(), any(), anyLong(), any());
+    }
+}
@@ -0,0 +1,104 @@
+package com.controllers;
+
+import com.dtos.request.OrderStatusUpdateDto;
+import com.enums.OrderStatus;
+import com.exceptionHandler.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.routing.ShardRouter;
+import com.services.IdempotencyService;
+import com.services.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Отказ AccessChecker (SecurityException) на публичных /orders - 403, а не 500; 404 остаётся 404
+@ExtendWith(MockitoExtension.class)
+class OrderControllerAccessTest {
+
+    private static final Set<String> USER = Set.of("ROLE_USER");
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService, idempotencyService,
+                        new ShardRouter(false, new String[0], 16, 0, 0)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setMessageConverters(new StringHttpMessageConverter(),
+                        new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json()
+                                .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                                .build()))
+                .build();
+    }
+
+    @Test
+    void statusChangeByNonAdminIsForbidden() throws Exception {
+        when(orderService.updateStatus(1L, OrderStatus.PROCESSING, 7L, USER))
+                .thenThrow(new SecurityException("Admin role required"));
+
+        mockMvc.perform(put("/orders/1/status")
+                        .header("X-User-Id", 7).header("X-User-Roles", "ROLE_USER")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(statusBody(OrderStatus.PROCESSING)))
+                .andExpect(status().isForbidden())
+                .andExpect(content().string("Admin role required"));
+    }
+
+    @Test
+    void deletingSomeoneElsesOrderIsForbidden() throws Exception {
+        doThrow(new SecurityException("Access denied")).when(orderService).deleteOrder(1L, 7L, USER);
+
+        mockMvc.perform(delete("/orders/1").header("X-User-Id", 7).header("X-User-Roles", "ROLE_USER"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void changeFeedForNonAdminIsForbidden() throws Exception {
+        when(orderService.getChanges(any(), anyInt(), any())).thenThrow(new SecurityException("Admin role required"));
+
+        mockMvc.perform(get("/orders/changes").header("X-User-Id", 7).header("X-User-Roles", "ROLE_USER"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void missingOrderIsStillNotFound() throws Exception {
+        doThrow(new NoSuchElementException("Order not found")).when(orderService).deleteOrder(1L, 7L, USER);
+
+        mockMvc.perform(delete("/orders/1").header("X-User-Id", 7).header("X-User-Roles", "ROLE_USER"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static String statusBody(OrderStatus status) throws Exception {
+        OrderStatusUpdateDto dto = new OrderStatusUpdateDto();
+        dto.setStatus(status);
+        return new ObjectMapper().writeValueAsString(dto);
+    }
+}
@@ -0,0 +1,127 @@
+package com.controllers;
+
+import com.dtos.request.OrderReadOptions;
+import com.dtos.response.OrderDto;
+import com.dtos.response.OrderWithUserDto;
+import com.dtos.response.VersionedOrder;
+import com.enums.OrderStatus;
+import com.etag.ETags;
+import com.exceptionHandler.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.routing.ShardRouter;
+import com.services.IdempotencyService;
+import com.services.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// GET /orders/{id}: 200 - один запрос и ETag от прочитанной версии, 304 - только версия; ETag зависит от include/fields
+@ExtendWith(MockitoExtension.class)
+class OrderControllerETagTest {
+
+    private static final long VERSION = 42L;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService, idempotencyService,
+                        new ShardRouter(false, new String[0], 16, 0, 0)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json()
+                        .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                        .build()))
+                .build();
+    }
+
+    @Test
+    void okResponseLoadsOnceAndTagsTheLoadedVersion() throws Exception {
+        stubLoad();
+
+        String etag = mockMvc.perform(get("/orders/1").header("X-User-Id", 7).header("X-User-Roles", "ROLE_USER"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).isEqualTo(ETags.of(VERSION, ETags.selectorOf(null, null)));
+        verify(orderService, times(1)).getVersionedOrderById(eq(1L), eq(7L), any(), any());
+        verify(orderService, never()).getOrderVersion(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void differentFieldsGetDifferentETags() throws Exception {
+        stubLoad();
+
+        String all = etagOf("/orders/1");
+        String slim = etagOf("/orders/1?fields=id,status");
+        String slimReordered = etagOf("/orders/1?fields=status,id");
+        String withoutUser = etagOf("/orders/1?include=items");
+
+        assertThat(slim).isNotEqualTo(all);
+        assertThat(withoutUser).isNotEqualTo(all).isNotEqualTo(slim);
+        assertThat(slimReordered).isEqualTo(slim);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredFromTheVersionOnly() throws Exception {
+        when(orderService.getOrderVersion(1L, 7L, Set.of("ROLE_USER"))).thenReturn(VERSION);
+
+        mockMvc.perform(get("/orders/1?fields=id")
+                        .header("X-User-Id", 7).header("X-User-Roles", "ROLE_USER")
+                        .header(HttpHeaders.IF_NONE_MATCH, ETags.of(VERSION, ETags.selectorOf(null, Set.of("id")))))
+                .andExpect(status().isNotModified());
+
+        verify(orderService, never()).getVersionedOrderById(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void ifNoneMatchForAnotherSelectorIsNotAMatch() throws Exception {
+        when(orderService.getOrderVersion(1L, 7L, Set.of("ROLE_USER"))).thenReturn(VERSION);
+        stubLoad();
+
+        mockMvc.perform(get("/orders/1?fields=id")
+                        .header("X-User-Id", 7).header("X-User-Roles", "ROLE_USER")
+                        .header(HttpHeaders.IF_NONE_MATCH, ETags.of(VERSION, ETags.selectorOf(null, null))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETags.of(VERSION, ETags.selectorOf(null, Set.of("id")))));
+    }
+
+    private void stubLoad() {
+        OrderDto order = new OrderDto(1L, OrderStatus.NEW, new BigDecimal("10.00"), false, null);
+        when(orderService.getVersionedOrderById(eq(1L), eq(7L), any(), any(OrderReadOptions.class)))
+                .thenReturn(new VersionedOrder(new OrderWithUserDto(order, null), VERSION));
+    }
+
+    private String etagOf(String url) throws Exception {
+        return mockMvc.perform(get(url).header("X-User-Id", 7).header("X-User-Roles", "ROLE_USER"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
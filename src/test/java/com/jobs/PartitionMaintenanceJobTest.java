@@ -0,0 +1,144 @@
+package com.jobs;
+
+import com.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PartitionMaintenanceJobTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private PartitionMaintenanceJob partitionMaintenanceJob;
+
+    @Autowired
+    private OrderArchiveJob orderArchiveJob;
+
+    @AfterEach
+    void resetRetention() {
+        ReflectionTestUtils.setField(partitionMaintenanceJob, "retentionMonths", 0);
+    }
+
+    @Test
+    void expiredMonthIsKeptWhileItHasLiveOrdersAndDroppedInPairsAfterwards() {
+        YearMonth month = YearMonth.now().minusMonths(36);
+        String suffix = month.format(DateTimeFormatter.ofPattern("'_y'yyyy'm'MM"));
+        createMonth(month);
+
+        Timestamp orderCreatedAt = Timestamp.valueOf(month.atDay(10).atStartOfDay());
+        Long itemId = insertItem("partition-test", "10.00");
+        Long orderId = insertOrder(orderCreatedAt, false);
+        insertOrderItem(orderId, orderCreatedAt, itemId);
+
+        ReflectionTestUtils.setField(partitionMaintenanceJob, "retentionMonths", 24);
+        partitionMaintenanceJob.maintainPartitions();
+
+        assertThat(tableExists("orders" + suffix)).isTrue();
+        assertThat(tableExists("order_items" + suffix)).isTrue();
+        assertThat(countItemsOf(orderId)).isEqualTo(1);
+
+        jdbcTemplate.update("UPDATE orders SET deleted = true WHERE id = ?", orderId);
+        orderArchiveJob.archiveDeletedOrders();
+        partitionMaintenanceJob.maintainPartitions();
+
+        assertThat(tableExists("orders" + suffix)).isFalse();
+        assertThat(tableExists("order_items" + suffix)).isFalse();
+    }
+
+    @Test
+    void softDeletedOrdersAreArchivedBeforeTheirMonthIsDropped() {
+        YearMonth month = YearMonth.now().minusMonths(34);
+        String suffix = month.format(DateTimeFormatter.ofPattern("'_y'yyyy'm'MM"));
+        createMonth(month);
+
+        Timestamp orderCreatedAt = Timestamp.valueOf(month.atDay(5).atStartOfDay());
+        Long itemId = insertItem("partition-archive-test", "10.00");
+        Long orderId = insertOrder(orderCreatedAt, true);
+        insertOrderItem(orderId, orderCreatedAt, itemId);
+
+        ReflectionTestUtils.setField(partitionMaintenanceJob, "retentionMonths", 24);
+        partitionMaintenanceJob.maintainPartitions();
+
+        // удалён, но ещё не в архиве - месяц остаётся
+        assertThat(tableExists("orders" + suffix)).isTrue();
+        assertThat(countArchived("orders_archive", "id", orderId)).isZero();
+
+        orderArchiveJob.archiveDeletedOrders();
+        partitionMaintenanceJob.maintainPartitions();
+
+        assertThat(tableExists("orders" + suffix)).isFalse();
+        assertThat(tableExists("order_items" + suffix)).isFalse();
+        assertThat(countArchived("orders_archive", "id", orderId)).isEqualTo(1);
+        assertThat(countArchived("order_items_archive", "order_id", orderId)).isEqualTo(1);
+    }
+
+    @Test
+    void orderItemsWithoutOrderAreRejected() {
+        Long itemId = insertItem("orphan-test", "5.00");
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        assertThatThrownBy(() -> insertOrderItem(Long.MAX_VALUE, now, itemId))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void orderItemsLandInTheMonthOfTheirOrder() {
+        YearMonth month = YearMonth.now().minusMonths(30);
+        String suffix = month.format(DateTimeFormatter.ofPattern("'_y'yyyy'm'MM"));
+        createMonth(month);
+
+        Timestamp orderCreatedAt = Timestamp.valueOf(month.atDay(28).atStartOfDay());
+        Long itemId = insertItem("month-test", "1.00");
+        Long orderId = insertOrder(orderCreatedAt, false);
+        insertOrderItem(orderId, orderCreatedAt, itemId);
+
+        Integer inOrderMonth = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM \"order_items" + suffix + "\" WHERE order_id = ?", Integer.class, orderId);
+        assertThat(inOrderMonth).isEqualTo(1);
+    }
+
+    private void createMonth(YearMonth month) {
+        Date monthStart = Date.valueOf(month.atDay(1));
+        jdbcTemplate.queryForList("SELECT create_monthly_partition('orders', ?)", monthStart);
+        jdbcTemplate.queryForList("SELECT create_monthly_partition('order_items', ?)", monthStart);
+    }
+
+    private Long insertOrder(Timestamp createdAt, boolean deleted) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO orders (user_id, status, total_price, deleted, created_at, updated_at)
+                VALUES (1, 'NEW', 10.00, ?, ?, ?) RETURNING id
+                """, Long.class, deleted, createdAt, createdAt);
+    }
+
+    private void insertOrderItem(Long orderId, Timestamp orderCreatedAt, Long itemId) {
+        // created_at самой позиции - сегодня: партицию выбирает order_created_at
+        jdbcTemplate.update("""
+                INSERT INTO order_items (order_id, order_created_at, item_id, quantity, created_at, updated_at)
+                VALUES (?, ?, ?, 1, now(), now())
+                """, orderId, orderCreatedAt, itemId);
+    }
+
+    private boolean tableExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+    }
+
+    private int countArchived(String table, String column, Long orderId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE " + column + " = ?",
+                Integer.class, orderId);
+        return count == null ? 0 : count;
+    }
+
+    private int countItemsOf(Long orderId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM order_items WHERE order_id = ?", Integer.class, orderId);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,186 @@
+package com.jobs;
+
+import com.dtos.UserInfoDto;
+import com.dtos.request.OrderCreateUpdateDto;
+import com.dtos.request.OrderItemCreateUpdateDto;
+import com.dtos.response.OrderItemDto;
+import com.enums.OrderStatus;
+import com.services.OrderItemService;
+import com.services.OrderService;
+import com.services.UserServiceClient;
+import com.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// Свипер и запись заказа на одной строке: побеждает тот, кто первым взял блокировку, второй видит его результат
+class StaleOrderSweeperRaceTest extends PostgresIntegrationTest {
+
+    private static final Set<String> ADMIN = Set.of("ROLE_ADMIN");
+    private static final Set<String> USER = Set.of("ROLE_USER");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private StaleOrderSweeper staleOrderSweeper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        when(userServiceClient.getUserById(anyLong(), anyLong(), any()))
+                .thenReturn(UserInfoDto.builder().id(1L).active(true).build());
+    }
+
+    @Test
+    void statusUpdateWaitsForTheSweeperAndRejectsTheStaleTransition() throws Exception {
+        Long orderId = insertStaleNewOrder();
+
+        Connection sweeper = dataSource.getConnection();
+        try {
+            // то же, что делает CANCEL_BATCH_SQL: строка под FOR UPDATE, статус CANCELLED, коммита пока нет
+            sweeper.setAutoCommit(false);
+            execute(sweeper, "SELECT id FROM orders WHERE id = ? FOR UPDATE", orderId);
+            execute(sweeper, "UPDATE orders SET status = 'CANCELLED' WHERE id = ?", orderId);
+
+            CompletableFuture<?> update = CompletableFuture.runAsync(
+                    () -> orderService.updateStatus(orderId, OrderStatus.PROCESSING, 1L, ADMIN));
+            awaitBlockedOnLock();
+            assertThat(update).isNotDone();
+
+            sweeper.commit();
+
+            assertThatThrownBy(() -> update.get(10, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            sweeper.close();
+        }
+
+        assertThat(statusOf(orderId)).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void sweeperSkipsAnOrderWhoseStatusIsBeingChanged() throws Exception {
+        Long orderId = insertStaleNewOrder();
+
+        Connection statusUpdate = dataSource.getConnection();
+        try {
+            // то же, что держит updateStatus до коммита: findActiveByIdForUpdate + смена статуса
+            statusUpdate.setAutoCommit(false);
+            execute(statusUpdate, "SELECT id FROM orders WHERE id = ? FOR UPDATE", orderId);
+            execute(statusUpdate, "UPDATE orders SET status = 'PROCESSING' WHERE id = ?", orderId);
+
+            CompletableFuture.runAsync(staleOrderSweeper::cancelStaleOrders).get(10, TimeUnit.SECONDS);
+
+            statusUpdate.commit();
+        } finally {
+            statusUpdate.close();
+        }
+
+        assertThat(statusOf(orderId)).isEqualTo("PROCESSING");
+    }
+
+    @Test
+    void orderUpdateWaitsForTheSweeperAndKeepsTheCancel() throws Exception {
+        Long orderId = insertStaleNewOrder();
+        Long itemId = insertItem("race-update-" + orderId, "10.00");
+
+        assertWaitsForTheSweeperAndKeepsTheCancel(orderId, () -> orderService.updateOrder(orderId,
+                OrderCreateUpdateDto.builder()
+                        .orderItems(List.of(OrderItemDto.builder().itemId(itemId).quantity(2).build()))
+                        .build(),
+                1L, USER));
+    }
+
+    @Test
+    void lineUpdateWaitsForTheSweeperAndKeepsTheCancel() throws Exception {
+        Long orderId = insertStaleNewOrder();
+        Long itemId = insertItem("race-line-" + orderId, "10.00");
+        Long lineId = jdbcTemplate.queryForObject("""
+                INSERT INTO order_items (order_id, order_created_at, item_id, quantity, created_at, updated_at)
+                SELECT id, created_at, ?, 1, now(), now() FROM orders WHERE id = ? RETURNING id
+                """, Long.class, itemId, orderId);
+
+        assertWaitsForTheSweeperAndKeepsTheCancel(orderId, () -> orderItemService.updateOrderItem(lineId,
+                OrderItemCreateUpdateDto.builder().orderId(orderId).itemId(itemId).quantity(3).build(), 1L, USER));
+    }
+
+    // Запись заказа целиком (updateOrder, правка позиций) после отмены свипером не должна вернуть NEW
+    private void assertWaitsForTheSweeperAndKeepsTheCancel(Long orderId, Runnable write) throws Exception {
+        Connection sweeper = dataSource.getConnection();
+        try {
+            sweeper.setAutoCommit(false);
+            execute(sweeper, "SELECT id FROM orders WHERE id = ? FOR UPDATE", orderId);
+            execute(sweeper, "UPDATE orders SET status = 'CANCELLED', version = version + 1 WHERE id = ?", orderId);
+
+            CompletableFuture<?> update = CompletableFuture.runAsync(write);
+            awaitBlockedOnLock();
+            assertThat(update).isNotDone();
+
+            sweeper.commit();
+            update.get(10, TimeUnit.SECONDS);
+        } finally {
+            sweeper.close();
+        }
+
+        assertThat(statusOf(orderId)).isEqualTo("CANCELLED");
+    }
+
+    private Long insertStaleNewOrder() {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now().minusDays(3));
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO orders (user_id, status, total_price, deleted, created_at, updated_at)
+                VALUES (1, 'NEW', 10.00, false, ?, ?) RETURNING id
+                """, Long.class, createdAt, createdAt);
+    }
+
+    private String statusOf(Long orderId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM orders WHERE id = ?", String.class, orderId);
+    }
+
+    private void awaitBlockedOnLock() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Boolean waiting = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database())",
+                    Boolean.class);
+            if (Boolean.TRUE.equals(waiting)) return;
+            Thread.sleep(50);
+        }
+        throw new AssertionError("updateStatus did not wait for the row lock");
+    }
+
+    private static void execute(Connection connection, String sql, Long orderId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, orderId);
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long TARGET = 100;
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 4, 200, TARGET, 0.5, 0.5);
+
+    @Test
+    void burstOfSlowResponsesFromOneWindowDecreasesOnce() {
+        acquire(10);
+
+        // десять запросов начаты до первого снижения и все медленные
+        for (int i = 0; i < 10; i++) {
+            limiter.release(i, 1_000 + i);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(50);
+    }
+
+    @Test
+    void slowResponseStartedAfterTheDecreaseDecreasesAgain() {
+        acquire(2);
+
+        limiter.release(0, 1_000);
+        limiter.release(1_001, 2_000);
+
+        assertThat(limiter.getLimit()).isEqualTo(25);
+    }
+
+    @Test
+    void neverGoesBelowMinLimit() {
+        acquire(20);
+        long start = 0;
+        for (int i = 0; i < 20; i++) {
+            limiter.release(start, start + 1_000);
+            start += 1_001;
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void fastResponsesUnderLoadIncreaseTheLimit() {
+        acquire(60);
+        for (int i = 0; i < 60; i++) {
+            limiter.release(0, TARGET);
+        }
+
+        assertThat(limiter.getLimit()).isGreaterThan(100);
+    }
+
+    @Test
+    void lowPriorityGetsOnlyItsShare() {
+        int admitted = 0;
+        while (limiter.tryAcquire(RequestPriority.LOW)) admitted++;
+
+        assertThat(admitted).isEqualTo(50);
+        assertThat(limiter.tryAcquire(RequestPriority.NORMAL)).isTrue();
+    }
+
+    private void acquire(int count) {
+        for (int i = 0; i < count; i++) {
+            assertThat(limiter.tryAcquire(RequestPriority.NORMAL)).isTrue();
+        }
+    }
+}
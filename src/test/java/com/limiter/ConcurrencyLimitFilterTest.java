@@ -0,0 +1,27 @@
+package com.limiter;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "GET,  /orders,               LOW",
+            "GET,  /orderItems,           LOW",
+            "GET,  /items/5/orderItems,   LOW",
+            "GET,  /orders/changes,       LOW",
+            "POST, /orders/lookup,        LOW",
+            "GET,  /items/trending,       LOW",
+            "GET,  /orders/5,             NORMAL",
+            "POST, /orders,               NORMAL",
+            "PUT,  /orders/5/status,      NORMAL",
+            "GET,  /items,                NORMAL",
+            "GET,  /orders/lookup,        NORMAL"
+    })
+    void classifiesRequests(String method, String uri, RequestPriority expected) {
+        assertThat(ConcurrencyLimitFilter.priorityOf(method, uri)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,59 @@
+package com.limiter;
+
+import com.routing.ReplicaRoutingDataSource;
+import com.routing.ReplicaSelector;
+import com.routing.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Пулы не стартуют: HikariDataSource без getConnection соединений не открывает
+class PaymentConsumerBackPressureTest {
+
+    @Test
+    void plainBootDataSourceIsItsOwnPool() {
+        HikariDataSource pool = new HikariDataSource();
+
+        assertThat(PaymentConsumerBackPressure.poolsBehind(pool)).containsExactly(pool);
+    }
+
+    @Test
+    void everyShardPoolIsResolvedBehindTheLazyProxy() {
+        HikariDataSource shard0 = new HikariDataSource();
+        HikariDataSource shard1 = new HikariDataSource();
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(List.of(shard0, shard1));
+        routing.afterPropertiesSet();
+
+        assertThat(PaymentConsumerBackPressure.poolsBehind(lazy(routing)))
+                .containsExactly(shard0, shard1);
+    }
+
+    @Test
+    void replicaRoutingResolvesToThePrimaryPool() {
+        HikariDataSource primary = new HikariDataSource();
+        HikariDataSource replica = new HikariDataSource();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new ReplicaSelector(List.of(), 1000));
+        routing.setTargetDataSources(Map.of(ReplicaRoutingDataSource.PRIMARY, primary, "replica-0", replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        assertThat(PaymentConsumerBackPressure.poolsBehind(lazy(routing)))
+                .containsExactly(primary);
+    }
+
+    // как в конфигах, но без afterPropertiesSet: он взял бы соединение у ненастроенного пула
+    private static LazyConnectionDataSourceProxy lazy(DataSource target) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(target);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+}
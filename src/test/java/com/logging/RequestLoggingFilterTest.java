@@ -0,0 +1,74 @@
+package com.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestLoggingFilterTest {
+
+    private final RequestLoggingFilter filter = new RequestLoggingFilter();
+    private final SqlCaptureInspector inspector = new SqlCaptureInspector();
+
+    @Test
+    void unsampledRequestCapturesNothing() throws Exception {
+        ReflectionTestUtils.setField(filter, "debugSampleRate", 0.0);
+        ReflectionTestUtils.setField(filter, "slowSqlSampleRate", 0.0);
+
+        AtomicBoolean capturing = new AtomicBoolean(true);
+        filter.doFilter(new MockHttpServletRequest("GET", "/orders/1"), new MockHttpServletResponse(), (request, response) -> {
+            inspector.inspect("select 1");
+            capturing.set(SqlCaptureInspector.isCapturing());
+        });
+
+        assertThat(capturing).isFalse();
+        assertThat(SqlCaptureInspector.isCapturing()).isFalse();
+    }
+
+    @Test
+    void sampledRequestCapturesAndCleansUp() throws Exception {
+        ReflectionTestUtils.setField(filter, "debugSampleRate", 1.0);
+
+        AtomicBoolean capturing = new AtomicBoolean();
+        filter.doFilter(new MockHttpServletRequest("GET", "/orders/1"), new MockHttpServletResponse(), (request, response) -> {
+            inspector.inspect("select 1");
+            capturing.set(SqlCaptureInspector.isCapturing());
+        });
+
+        assertThat(capturing).isTrue();
+        assertThat(SqlCaptureInspector.isCapturing()).isFalse();
+    }
+
+    @Test
+    void slowSqlSamplingCapturesWithoutDebug() throws Exception {
+        ReflectionTestUtils.setField(filter, "debugSampleRate", 0.0);
+        ReflectionTestUtils.setField(filter, "slowSqlSampleRate", 1.0);
+
+        AtomicBoolean capturing = new AtomicBoolean();
+        AtomicBoolean debug = new AtomicBoolean(true);
+        filter.doFilter(new MockHttpServletRequest("GET", "/orders/1"), new MockHttpServletResponse(), (request, response) -> {
+            inspector.inspect("select 1");
+            capturing.set(SqlCaptureInspector.isCapturing());
+            debug.set(MDC.get(RequestLoggingFilter.DEBUG_SAMPLED) != null);
+        });
+
+        assertThat(capturing).isTrue();
+        assertThat(debug).isFalse();
+        assertThat(SqlCaptureInspector.isCapturing()).isFalse();
+    }
+
+    @Test
+    void captureIsCappedPerRequest() {
+        SqlCaptureInspector.begin();
+        IntStream.range(0, 200).forEach(i -> inspector.inspect("select " + i));
+
+        assertThat(SqlCaptureInspector.end()).hasSize(50);
+        assertThat(SqlCaptureInspector.end()).isEmpty();
+    }
+}
@@ -0,0 +1,91 @@
+package com.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Быстрый путь (long) обязан совпадать с прежним BigDecimal-расчётом по equals: значение и scale
+class MoneyTotalsTest {
+
+    private static final int CASES = 200_000;
+
+    @Test
+    void longPathMatchesBigDecimalOnRandomOrders() {
+        Random random = new Random(45);
+
+        for (int i = 0; i < CASES; i++) {
+            List<Line> lines = randomOrder(random);
+
+            BigDecimal expected = MoneyTotals.totalExact(lines, Line::price, Line::quantity);
+            BigDecimal actual = MoneyTotals.total(lines, Line::price, Line::quantity);
+
+            assertThat(actual).as("case %d: %s", i, lines).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void emptyOrderIsZeroWithScaleZero() {
+        assertThat(MoneyTotals.total(List.<Line>of(), Line::price, Line::quantity)).isEqualTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void sumOverflowFallsBackToBigDecimal() {
+        List<Line> lines = List.of(
+                new Line(BigDecimal.valueOf(Long.MAX_VALUE / 2, 2), 3),
+                new Line(new BigDecimal("0.01"), 1));
+
+        assertThat(MoneyTotals.total(lines, Line::price, Line::quantity))
+                .isEqualTo(MoneyTotals.totalExact(lines, Line::price, Line::quantity));
+    }
+
+    @Test
+    void unscaledPriceWiderThanLongFallsBackToBigDecimal() {
+        BigDecimal huge = new BigDecimal(BigInteger.ONE.shiftLeft(70), 2);
+        List<Line> lines = List.of(new Line(new BigDecimal("1.50"), 2), new Line(huge, 1));
+
+        assertThat(MoneyTotals.total(lines, Line::price, Line::quantity))
+                .isEqualTo(MoneyTotals.totalExact(lines, Line::price, Line::quantity));
+    }
+
+    @Test
+    void scaleGapBeyondLongPrecisionFallsBackToBigDecimal() {
+        List<Line> lines = List.of(new Line(BigDecimal.valueOf(7, -3), 1), new Line(BigDecimal.valueOf(1, 20), 1));
+
+        assertThat(MoneyTotals.total(lines, Line::price, Line::quantity))
+                .isEqualTo(MoneyTotals.totalExact(lines, Line::price, Line::quantity));
+    }
+
+    private static List<Line> randomOrder(Random random) {
+        int size = random.nextInt(12);
+        List<Line> lines = new ArrayList<>(size);
+        for (int j = 0; j < size; j++) {
+            lines.add(new Line(randomPrice(random), randomQuantity(random)));
+        }
+        return lines;
+    }
+
+    // В основном DECIMAL(10,2), но и другие scale, включая отрицательные, и цены у границы long
+    private static BigDecimal randomPrice(Random random) {
+        int scale = switch (random.nextInt(4)) {
+            case 0, 1 -> 2;
+            case 2 -> random.nextInt(7);
+            default -> -random.nextInt(4);
+        };
+        long unscaled = random.nextInt(20) == 0
+                ? Long.MAX_VALUE - random.nextInt(1000)
+                : random.nextLong(10_000_000_000L);
+        return BigDecimal.valueOf(random.nextBoolean() ? unscaled : -unscaled, scale);
+    }
+
+    private static int randomQuantity(Random random) {
+        return random.nextInt(20) == 0 ? Integer.MAX_VALUE - random.nextInt(1000) : 1 + random.nextInt(100);
+    }
+
+    private record Line(BigDecimal price, int quantity) {}
+}
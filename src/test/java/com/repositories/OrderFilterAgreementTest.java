@@ -0,0 +1,101 @@
+package com.repositories;
+
+import com.dtos.request.OrderSearchFilter;
+import com.entities.Order;
+import com.enums.OrderStatus;
+import com.specifications.OrderServiceSpecifications;
+import com.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// OrderCountEstimator (EXPLAIN по SQL) и OrderServiceSpecifications.matching (страница) должны считать одно и то же
+@Transactional
+class OrderFilterAgreementTest extends PostgresIntegrationTest {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final LocalDateTime BASE = LocalDateTime.now().withDayOfMonth(1).withHour(0).withNano(0);
+
+    @Autowired
+    private OrderRep orderRepository;
+
+    private final Random random = new Random(39);
+    private final List<Long> itemIds = new ArrayList<>();
+    private final Set<Long> seeded = new HashSet<>();
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < 4; i++) {
+            itemIds.add(insertItem("filter-" + i, "1.00"));
+        }
+        for (int i = 0; i < 200; i++) {
+            Timestamp createdAt = Timestamp.valueOf(BASE.plusHours(random.nextInt(24 * 20)));
+            Long orderId = jdbcTemplate.queryForObject("""
+                    INSERT INTO orders (user_id, status, total_price, deleted, created_at, updated_at)
+                    VALUES (?, ?, ?, ?, ?, ?) RETURNING id
+                    """, Long.class,
+                    1000L + random.nextInt(5), STATUSES[random.nextInt(STATUSES.length)].name(),
+                    BigDecimal.valueOf(random.nextInt(10_000), 2), random.nextInt(10) == 0, createdAt, createdAt);
+            seeded.add(orderId);
+
+            for (Long itemId : itemIds) {
+                if (random.nextBoolean()) {
+                    jdbcTemplate.update("""
+                            INSERT INTO order_items (order_id, order_created_at, item_id, quantity, created_at, updated_at)
+                            VALUES (?, ?, ?, 1, now(), now())
+                            """, orderId, createdAt, itemId);
+                }
+            }
+        }
+    }
+
+    @Test
+    void estimatorWhereAndSpecificationSelectTheSameOrders() {
+        List<OrderSearchFilter> filters = new ArrayList<>();
+        filters.add(OrderSearchFilter.EMPTY);
+        for (int i = 0; i < 60; i++) {
+            filters.add(randomFilter());
+        }
+
+        for (OrderSearchFilter filter : filters) {
+            List<Object> args = new ArrayList<>();
+            String where = OrderCountEstimator.whereOf(filter, args);
+            Set<Long> bySql = jdbcTemplate.queryForList("SELECT o.id FROM orders o WHERE " + where, Long.class, args.toArray())
+                    .stream().filter(seeded::contains).collect(Collectors.toSet());
+
+            Set<Long> bySpec = orderRepository.findAll(OrderServiceSpecifications.matching(filter)).stream()
+                    .map(Order::getId).filter(seeded::contains).collect(Collectors.toSet());
+
+            assertThat(bySql).as("where: %s, args: %s", where, args).isEqualTo(bySpec);
+        }
+    }
+
+    private OrderSearchFilter randomFilter() {
+        OrderSearchFilter.OrderSearchFilterBuilder filter = OrderSearchFilter.builder();
+        if (random.nextBoolean()) {
+            filter.statuses(List.of(STATUSES[random.nextInt(STATUSES.length)], STATUSES[random.nextInt(STATUSES.length)]));
+        }
+        if (random.nextBoolean()) {
+            // start > end тоже бывает: такой диапазон обе стороны обязаны игнорировать
+            filter.start(BASE.plusHours(random.nextInt(24 * 20))).end(BASE.plusHours(random.nextInt(24 * 20)));
+        }
+        if (random.nextInt(3) == 0) filter.userId(1000L + random.nextInt(5));
+        if (random.nextInt(3) == 0) filter.itemId(itemIds.get(random.nextInt(itemIds.size())));
+        if (random.nextBoolean()) filter.minTotal(BigDecimal.valueOf(random.nextInt(5_000), 2));
+        if (random.nextBoolean()) filter.maxTotal(BigDecimal.valueOf(5_000 + random.nextInt(5_000), 2));
+        return filter.build();
+    }
+}
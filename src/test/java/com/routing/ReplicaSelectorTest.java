@@ -0,0 +1,137 @@
+package com.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Настоящая потоковая реплика: primary + pg_basebackup -R в соседнем контейнере
+class ReplicaSelectorTest {
+
+    private static final String IMAGE = "postgres:15-alpine";
+    private static final long MAX_LAG_MS = 1000;
+
+    private static final Network NETWORK = Network.newNetwork();
+
+    private static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>(IMAGE)
+            .withNetwork(NETWORK)
+            .withNetworkAliases("primary")
+            .withCopyToContainer(Transferable.of("""
+                    #!/bin/sh
+                    set -e
+                    psql -v ON_ERROR_STOP=1 -U "$POSTGRES_USER" -d "$POSTGRES_DB" \
+                        -c "CREATE ROLE repl WITH REPLICATION LOGIN PASSWORD 'repl'"
+                    echo "host replication repl all md5" >> "$PGDATA/pg_hba.conf"
+                    """, 0755), "/docker-entrypoint-initdb.d/replication.sh");
+
+    private static final GenericContainer<?> REPLICA = new GenericContainer<>(IMAGE)
+            .withNetwork(NETWORK)
+            .withExposedPorts(5432)
+            .withEnv("PGPASSWORD", "repl")
+            .withCommand("sh", "-c", """
+                    until su-exec postgres pg_basebackup -h primary -U repl -D /tmp/pgdata -R -X stream; do
+                        rm -rf /tmp/pgdata; sleep 1;
+                    done
+                    chmod 700 /tmp/pgdata
+                    exec su-exec postgres postgres -D /tmp/pgdata
+                    """)
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*\\n", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    private static HikariDataSource primaryDataSource;
+    private static HikariDataSource replicaDataSource;
+    private static JdbcTemplate primaryJdbc;
+
+    @BeforeAll
+    static void startCluster() {
+        PRIMARY.start();
+        REPLICA.dependsOn(PRIMARY).start();
+
+        primaryDataSource = dataSource(PRIMARY.getJdbcUrl());
+        primaryJdbc = new JdbcTemplate(primaryDataSource);
+        replicaDataSource = dataSource("jdbc:postgresql://" + REPLICA.getHost() + ":" + REPLICA.getMappedPort(5432)
+                + "/" + PRIMARY.getDatabaseName());
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        if (replicaDataSource != null) replicaDataSource.close();
+        if (primaryDataSource != null) primaryDataSource.close();
+        REPLICA.stop();
+        PRIMARY.stop();
+    }
+
+    @Test
+    void caughtUpReplicaStaysHealthyWhilePrimaryIsIdle() throws InterruptedException {
+        primaryJdbc.execute("CREATE TABLE IF NOT EXISTS replica_probe (id INT)");
+        primaryJdbc.update("INSERT INTO replica_probe VALUES (1)");
+        awaitReplayed();
+
+        // простой дольше max-lag: старая формула now() - replay_timestamp уже > MAX_LAG_MS
+        Thread.sleep(MAX_LAG_MS * 3);
+
+        ReplicaNode node = new ReplicaNode("replica-0", replicaDataSource);
+        ReplicaSelector selector = new ReplicaSelector(List.of(node), MAX_LAG_MS);
+        selector.checkReplicas();
+
+        assertThat(node.isHealthy()).isTrue();
+        assertThat(node.getLagMs()).isZero();
+        assertThat(selector.nextHealthyKey()).contains("replica-0");
+    }
+
+    @Test
+    void unreachableReplicaIsSkipped() {
+        HikariDataSource broken = dataSource("jdbc:postgresql://127.0.0.1:1/none");
+        broken.setConnectionTimeout(250);
+        broken.setInitializationFailTimeout(-1);
+
+        ReplicaNode down = new ReplicaNode("replica-down", broken);
+        ReplicaNode up = new ReplicaNode("replica-up", replicaDataSource);
+        ReplicaSelector selector = new ReplicaSelector(List.of(down, up), MAX_LAG_MS);
+        try {
+            selector.checkReplicas();
+
+            assertThat(down.isHealthy()).isFalse();
+            for (int i = 0; i < 4; i++) {
+                assertThat(selector.nextHealthyKey()).contains("replica-up");
+            }
+
+            selector.markUnhealthy("replica-up");
+            assertThat(selector.nextHealthyKey()).isEmpty();
+        } finally {
+            broken.close();
+        }
+    }
+
+    private static void awaitReplayed() throws InterruptedException {
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replicaDataSource);
+        for (int i = 0; i < 100; i++) {
+            Boolean replayed = replicaJdbc.queryForObject(
+                    "SELECT to_regclass('replica_probe') IS NOT NULL AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming')",
+                    Boolean.class);
+            if (Boolean.TRUE.equals(replayed)) return;
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Replica did not catch up");
+    }
+
+    private static HikariDataSource dataSource(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(PRIMARY.getUsername());
+        dataSource.setPassword(PRIMARY.getPassword());
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+}
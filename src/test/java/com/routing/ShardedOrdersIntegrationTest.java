@@ -0,0 +1,290 @@
+package com.routing;
+
+import com.cache.OrderInvalidationEvent;
+import com.dtos.UserInfoDto;
+import com.dtos.request.ItemCreateUpdateDto;
+import com.dtos.request.OrderCreateUpdateDto;
+import com.dtos.request.OrderReadOptions;
+import com.dtos.request.OrderSearchFilter;
+import com.dtos.response.OrderChangeDto;
+import com.dtos.response.OrderChangesResponse;
+import com.dtos.response.OrderDto;
+import com.dtos.response.OrderItemDto;
+import com.dtos.response.OrderWithUserDto;
+import com.enums.OrderStatus;
+import com.services.ItemService;
+import com.services.OrderService;
+import com.services.UserServiceClient;
+import com.support.PostgresContainers;
+import liquibase.exception.LiquibaseException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+// Шардирование на двух настоящих PostgreSQL: маршрутизация по id, scatter-пагинация, лента изменений
+// и отказ стартовать, если номер шарда или id-slots поменялись после первого запуска
+@SpringBootTest
+@ActiveProfiles("test")
+class ShardedOrdersIntegrationTest {
+
+    private static final PostgreSQLContainer<?> SHARD_0 = PostgresContainers.get("shard-0");
+    private static final PostgreSQLContainer<?> SHARD_1 = PostgresContainers.get("shard-1");
+    private static final PostgreSQLContainer<?>[] SHARDS = {SHARD_0, SHARD_1};
+
+    private static final int ID_SLOTS = 16;
+    private static final long LEGACY_MAX_ID = 1000;
+    private static final Set<String> USER = Set.of("ROLE_USER");
+    private static final Set<String> ADMIN = Set.of("ROLE_ADMIN");
+
+    @MockBean(name = "orderInvalidationKafkaTemplate")
+    private KafkaTemplate<String, OrderInvalidationEvent> orderInvalidationKafkaTemplate;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private Long itemId;
+
+    @DynamicPropertySource
+    static void shardProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", SHARD_0::getJdbcUrl);
+        registry.add("spring.datasource.username", SHARD_0::getUsername);
+        registry.add("spring.datasource.password", SHARD_0::getPassword);
+        registry.add("orders.sharding.enabled", () -> "true");
+        registry.add("orders.sharding.urls", () -> SHARD_0.getJdbcUrl() + "," + SHARD_1.getJdbcUrl());
+        registry.add("orders.sharding.id-slots", () -> String.valueOf(ID_SLOTS));
+        registry.add("orders.sharding.legacy-max-order-id", () -> String.valueOf(LEGACY_MAX_ID));
+        registry.add("orders.sharding.legacy-max-order-item-id", () -> String.valueOf(LEGACY_MAX_ID));
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(orderInvalidationKafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(userServiceClient.getUserById(anyLong(), anyLong(), any()))
+                .thenAnswer(invocation -> activeUser(invocation.getArgument(0)));
+        when(userServiceClient.getUserByIdForAdminList(anyLong(), anyLong(), any()))
+                .thenAnswer(invocation -> activeUser(invocation.getArgument(0)));
+
+        // товар пишется на шард 0 и копируется на остальные
+        itemId = itemService.createItem(ItemCreateUpdateDto.builder()
+                .name("sharded-" + UUID.randomUUID()).price(new BigDecimal("10.00")).build(), ADMIN).getId();
+    }
+
+    @Test
+    void orderIsCreatedOnTheUserShardAndFoundById() {
+        for (int shard = 0; shard < SHARDS.length; shard++) {
+            int target = shard;
+            Long userId = userOnShard(shard, 0);
+
+            OrderDto created = orderService.createOrder(orderOf(itemId), userId, USER).getOrder();
+
+            assertThat(created.getId()).isGreaterThan(LEGACY_MAX_ID);
+            assertThat(Math.floorMod(created.getId(), ID_SLOTS)).isEqualTo(target);
+            assertThat(created.getOrderItems()).allSatisfy(line -> {
+                assertThat(line.getId()).isGreaterThan(LEGACY_MAX_ID);
+                assertThat(Math.floorMod(line.getId(), ID_SLOTS)).isEqualTo(target);
+            });
+            for (int other = 0; other < SHARDS.length; other++) {
+                assertThat(countOrders(other, created.getId())).isEqualTo(other == shard ? 1 : 0);
+            }
+
+            OrderWithUserDto found = orderService.getOrderById(created.getId(), userId, USER);
+            assertThat(found.getOrder().getId()).isEqualTo(created.getId());
+            assertThat(found.getOrder().getOrderItems()).extracting(OrderItemDto::getItemId).containsExactly(itemId);
+        }
+    }
+
+    @Test
+    void scatterPagesMergeBothShardsWithoutGapsOrRepeats() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            for (int shard = 0; shard < SHARDS.length; shard++) {
+                expected.add(orderService.createOrder(orderOf(itemId), userOnShard(shard, i), USER).getOrder().getId());
+            }
+        }
+        expected.sort(null);
+
+        OrderSearchFilter filter = OrderSearchFilter.builder().itemId(itemId).build();
+        List<Long> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            Page<OrderWithUserDto> result = orderService.getAllOrders(filter, PageRequest.of(page, 2, Sort.by("id")),
+                    1L, ADMIN, OrderReadOptions.FULL);
+            assertThat(result.getTotalElements()).isEqualTo(expected.size());
+            result.getContent().forEach(row -> paged.add(row.getOrder().getId()));
+        }
+
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void changeFeedKeepsACursorPerShard() {
+        String cursor = drain();
+        Long first = orderService.createOrder(orderOf(itemId), userOnShard(0, 0), USER).getOrder().getId();
+        Long second = orderService.createOrder(orderOf(itemId), userOnShard(1, 0), USER).getOrder().getId();
+
+        OrderChangesResponse created = orderService.getChanges(cursor, 100, ADMIN);
+        assertThat(idsOf(created)).containsExactlyInAnyOrder(first, second);
+        assertThat(orderService.getChanges(created.getNextCursor(), 100, ADMIN).getChanges()).isEmpty();
+
+        orderService.updateStatusInternal(second, OrderStatus.PROCESSING);
+
+        OrderChangesResponse updated = orderService.getChanges(created.getNextCursor(), 100, ADMIN);
+        assertThat(idsOf(updated)).containsExactly(second);
+    }
+
+    @Test
+    void changeFeedLimitTakesRowsFromEveryShard() {
+        String cursor = drain();
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            for (int shard = 0; shard < SHARDS.length; shard++) {
+                expected.add(orderService.createOrder(orderOf(itemId), userOnShard(shard, i), USER).getOrder().getId());
+            }
+        }
+
+        OrderChangesResponse first = orderService.getChanges(cursor, 2, ADMIN);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(idsOf(first)).extracting(id -> Math.floorMod(id, ID_SLOTS)).containsExactlyInAnyOrder(0, 1);
+
+        OrderChangesResponse second = orderService.getChanges(first.getNextCursor(), 2, ADMIN);
+        List<Long> all = new ArrayList<>(idsOf(first));
+        all.addAll(idsOf(second));
+        assertThat(all).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void startupIsRefusedWhenIdSlotsChange() {
+        assertThatThrownBy(() -> migrate(List.of(dataSourceOf(SHARD_0), dataSourceOf(SHARD_1)), ID_SLOTS / 2))
+                .hasStackTraceContaining("orders.sharding.id-slots");
+    }
+
+    @Test
+    void startupIsRefusedWhenShardsAreReordered() {
+        assertThatThrownBy(() -> migrate(List.of(dataSourceOf(SHARD_1), dataSourceOf(SHARD_0)), ID_SLOTS))
+                .hasStackTraceContaining("orders.sharding.urls");
+    }
+
+    @Test
+    void restartWithTheSameLayoutIsAccepted() throws LiquibaseException {
+        migrate(List.of(dataSourceOf(SHARD_0), dataSourceOf(SHARD_1)), ID_SLOTS);
+
+        Long orderId = orderService.createOrder(orderOf(itemId), userOnShard(1, 0), USER).getOrder().getId();
+        assertThat(Math.floorMod(orderId, ID_SLOTS)).isEqualTo(1);
+    }
+
+    @Test
+    void restartDoesNotMoveTheSequences() throws LiquibaseException {
+        // старый под при rolling deploy уже взял id, которых ещё нет в таблице
+        JdbcTemplate shard1 = new JdbcTemplate(dataSourceOf(SHARD_1));
+        Long taken = shard1.queryForObject("SELECT nextval('orders_id_seq')", Long.class);
+
+        migrate(List.of(dataSourceOf(SHARD_0), dataSourceOf(SHARD_1)), ID_SLOTS);
+
+        assertThat(shard1.queryForObject("SELECT last_value FROM orders_id_seq", Long.class)).isEqualTo(taken);
+        Long orderId = orderService.createOrder(orderOf(itemId), userOnShard(1, 0), USER).getOrder().getId();
+        assertThat(orderId).isEqualTo(taken + ID_SLOTS);
+    }
+
+    @Test
+    void duplicateIdWithinAPartitionIsRejected() {
+        Long orderId = orderService.createOrder(orderOf(itemId), userOnShard(0, 0), USER).getOrder().getId();
+        JdbcTemplate shard0 = new JdbcTemplate(dataSourceOf(SHARD_0));
+
+        // тот же id, другой created_at в том же месяце: PK (id, created_at) такое пропустил бы
+        assertThatThrownBy(() -> shard0.update("""
+                INSERT INTO orders (id, user_id, status, total_price, deleted, created_at, updated_at)
+                SELECT id, user_id, status, total_price, deleted, created_at + interval '1 microsecond', updated_at
+                FROM orders WHERE id = ?
+                """, orderId))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    private void migrate(List<DataSource> shards, int idSlots) throws LiquibaseException {
+        ShardedSpringLiquibase liquibase = new ShardedSpringLiquibase(shards, idSlots, LEGACY_MAX_ID, LEGACY_MAX_ID);
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.setChangeLog("classpath:db/changelog/changelog-master.xml");
+        liquibase.afterPropertiesSet();
+    }
+
+    // n-й по счёту userId, который ShardRouter отправляет на shard
+    private Long userOnShard(int shard, int n) {
+        int seen = 0;
+        for (long userId = 1; ; userId++) {
+            if (shardRouter.shardOfUser(userId) == shard && seen++ == n) {
+                return userId;
+            }
+        }
+    }
+
+    private String drain() {
+        String cursor = null;
+        OrderChangesResponse page;
+        do {
+            page = orderService.getChanges(cursor, 1000, ADMIN);
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+        return cursor;
+    }
+
+    private static int countOrders(int shard, Long orderId) {
+        Integer count = new JdbcTemplate(dataSourceOf(SHARDS[shard]))
+                .queryForObject("SELECT count(*) FROM orders WHERE id = ?", Integer.class, orderId);
+        return count == null ? 0 : count;
+    }
+
+    private static DataSource dataSourceOf(PostgreSQLContainer<?> container) {
+        return new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+
+    private static UserInfoDto activeUser(Long id) {
+        return UserInfoDto.builder().id(id).active(true).build();
+    }
+
+    private static OrderCreateUpdateDto orderOf(Long itemId) {
+        return OrderCreateUpdateDto.builder()
+                .orderItems(List.of(OrderItemDto.builder().itemId(itemId).quantity(1).build()))
+                .build();
+    }
+
+    private static List<Long> idsOf(OrderChangesResponse response) {
+        return response.getChanges().stream().map(OrderChangeDto::getId).toList();
+    }
+}
@@ -0,0 +1,139 @@
+package com.services;
+
+import com.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest extends PostgresIntegrationTest {
+
+    private static final String SCOPE = "POST /test";
+    private static final Long REQUESTER = 5L;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void resetWaitTimeout() {
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMs", 10_000L);
+    }
+
+    @Test
+    void repeatedRequestReplaysTheStoredResponse() {
+        String key = UUID.randomUUID().toString();
+
+        ResponseEntity<String> first = execute(key, Map.of("a", 1), this::created);
+        ResponseEntity<String> second = execute(key, Map.of("a", 1), this::created);
+
+        assertThat(executions).hasValue(1);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+        assertThat(second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        String key = UUID.randomUUID().toString();
+        execute(key, Map.of("a", 1), this::created);
+
+        assertThatThrownBy(() -> execute(key, Map.of("a", 2), this::created))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstAndGetsItsResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(
+                () -> execute(key, Map.of("a", 1), blockingUntil(started, release)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<ResponseEntity<String>> duplicate = CompletableFuture.supplyAsync(
+                () -> execute(key, Map.of("a", 1), this::created));
+        Thread.sleep(300);
+        assertThat(duplicate).isNotDone();
+
+        release.countDown();
+
+        assertThat(duplicate.get(10, TimeUnit.SECONDS).getBody()).isEqualTo(first.get(10, TimeUnit.SECONDS).getBody());
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void duplicateGetsConflictWhenTheFirstIsStillRunningAfterTheWaitTimeout() throws Exception {
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMs", 200L);
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(
+                () -> execute(key, Map.of("a", 1), blockingUntil(started, release)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            assertThatThrownBy(() -> execute(key, Map.of("a", 1), this::created))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        } finally {
+            release.countDown();
+        }
+        assertThat(first.get(10, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void failedActionRollsBackItsWritesTogetherWithTheKey() {
+        String key = UUID.randomUUID().toString();
+        String itemName = "idempotency-" + key;
+
+        assertThatThrownBy(() -> execute(key, Map.of("a", 1), () -> {
+            insertItem(itemName, "1.00");
+            throw new IllegalStateException("crash after write");
+        })).isInstanceOf(IllegalStateException.class);
+
+        Integer items = jdbcTemplate.queryForObject("SELECT count(*) FROM items WHERE name = ?", Integer.class, itemName);
+        assertThat(items).isZero();
+
+        // ключ не запомнен: повтор выполняется заново
+        execute(key, Map.of("a", 1), this::created);
+        assertThat(executions).hasValue(1);
+    }
+
+    private ResponseEntity<String> execute(String key, Object request, Supplier<ResponseEntity<String>> action) {
+        return idempotencyService.execute(key, SCOPE, REQUESTER, 0, request, String.class, action);
+    }
+
+    private ResponseEntity<String> created() {
+        return ResponseEntity.status(HttpStatus.CREATED).body("order-" + executions.incrementAndGet());
+    }
+
+    private Supplier<ResponseEntity<String>> blockingUntil(CountDownLatch started, CountDownLatch release) {
+        return () -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return created();
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.services;
+
+import com.dtos.response.ItemDto;
+import com.entities.Item;
+import com.entities.Order;
+import com.entities.OrderItem;
+import com.repositories.ItemRep;
+import com.repositories.OrderItemRep;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderCalculationServiceTest {
+
+    @Mock private OrderItemRep orderItemRepository;
+    @Mock private ItemRep itemRepository;
+
+    @InjectMocks
+    private OrderCalculationService orderCalculationService;
+
+    @Test
+    void pricesOfAllLinesAreLoadedInOneQuery() {
+        when(itemRepository.findCatalogByIds(Set.of(1L, 2L))).thenReturn(List.of(
+                new ItemDto(1L, "a", new BigDecimal("2.50")),
+                new ItemDto(2L, "b", new BigDecimal("1.00"))));
+        Order order = orderOf(line(1L, 2), line(2L, 3), line(1L, 1));
+
+        orderCalculationService.updateTotal(order);
+
+        assertThat(order.getTotalPrice()).isEqualTo(new BigDecimal("10.50"));
+        verify(itemRepository, times(1)).findCatalogByIds(any());
+        verify(itemRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void missingItemFailsTheCalculation() {
+        when(itemRepository.findCatalogByIds(Set.of(1L, 9L)))
+                .thenReturn(List.of(new ItemDto(1L, "a", BigDecimal.ONE)));
+        Order order = orderOf(line(1L, 1), line(9L, 1));
+
+        assertThatThrownBy(() -> orderCalculationService.updateTotal(order))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("9");
+    }
+
+    @Test
+    void orderWithoutLinesCostsZeroWithoutQueries() {
+        Order order = orderOf();
+
+        orderCalculationService.updateTotal(order);
+
+        assertThat(order.getTotalPrice()).isEqualTo(BigDecimal.ZERO);
+        verify(itemRepository, never()).findCatalogByIds(any());
+    }
+
+    private static Order orderOf(OrderItem... lines) {
+        Order order = new Order();
+        order.setOrderItems(List.of(lines));
+        return order;
+    }
+
+    private static OrderItem line(Long itemId, int quantity) {
+        Item item = new Item();
+        item.setId(itemId);
+        return OrderItem.builder().item(item).quantity(quantity).build();
+    }
+}
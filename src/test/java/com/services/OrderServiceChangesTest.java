@@ -0,0 +1,139 @@
+package com.services;
+
+import com.dtos.response.OrderChangeDto;
+import com.dtos.response.OrderChangesResponse;
+import com.enums.OrderStatus;
+import com.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Лента изменений: транзакция, закоммиченная позже, не должна обогнать ещё открытую, а правка позиций - попасть в ленту
+class OrderServiceChangesTest extends PostgresIntegrationTest {
+
+    private static final Set<String> ADMIN = Set.of("ROLE_ADMIN");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void laterCommitDoesNotOvertakeAnOpenTransaction() throws SQLException {
+        Long first = insertOrder();
+        Long second = insertOrder();
+        String cursor = drain();
+
+        OrderChangesResponse during;
+        try (Connection open = connect()) {
+            open.setAutoCommit(false);
+            // xid берёт первая транзакция, а коммитится она последней
+            execute(open, "UPDATE orders SET status = 'PROCESSING' WHERE id = ?", first);
+            jdbcTemplate.update("UPDATE orders SET status = 'PROCESSING' WHERE id = ?", second);
+
+            during = orderService.getChanges(cursor, 100, ADMIN);
+            assertThat(idsOf(during)).doesNotContain(first, second);
+
+            open.commit();
+        }
+
+        OrderChangesResponse after = orderService.getChanges(during.getNextCursor(), 100, ADMIN);
+        assertThat(idsOf(after)).containsExactly(first, second);
+        assertThat(after.getChanges()).extracting(OrderChangeDto::getStatus).containsOnly(OrderStatus.PROCESSING);
+    }
+
+    @Test
+    void replacingLinesReturnsTheOrderToTheFeed() throws SQLException {
+        Long firstItemId = insertItem("changes-a", "10.00");
+        Long secondItemId = insertItem("changes-b", "10.00");
+        Long orderId = insertOrder();
+        LocalDateTime createdAt = jdbcTemplate.queryForObject("SELECT created_at FROM orders WHERE id = ?",
+                LocalDateTime.class, orderId);
+        insertLine(orderId, createdAt, firstItemId);
+        String cursor = drain();
+
+        // та же сумма, строку заказа приложение не трогает - только позиции
+        try (Connection connection = connect()) {
+            connection.setAutoCommit(false);
+            execute(connection, "DELETE FROM order_items WHERE order_id = ?", orderId);
+            try (PreparedStatement insert = connection.prepareStatement("""
+                    INSERT INTO order_items (order_id, order_created_at, item_id, quantity, created_at, updated_at)
+                    VALUES (?, ?, ?, 1, now(), now())
+                    """)) {
+                insert.setLong(1, orderId);
+                insert.setTimestamp(2, Timestamp.valueOf(createdAt));
+                insert.setLong(3, secondItemId);
+                insert.executeUpdate();
+            }
+            connection.commit();
+        }
+
+        OrderChangesResponse changes = orderService.getChanges(cursor, 100, ADMIN);
+        assertThat(idsOf(changes)).containsExactly(orderId);
+
+        jdbcTemplate.update("UPDATE order_items SET quantity = 2 WHERE order_id = ?", orderId);
+        assertThat(idsOf(orderService.getChanges(changes.getNextCursor(), 100, ADMIN))).containsExactly(orderId);
+    }
+
+    @Test
+    void cursorDoesNotRepeatRows() {
+        String cursor = drain();
+        Long orderId = insertOrder();
+
+        OrderChangesResponse first = orderService.getChanges(cursor, 100, ADMIN);
+        OrderChangesResponse second = orderService.getChanges(first.getNextCursor(), 100, ADMIN);
+
+        assertThat(idsOf(first)).containsExactly(orderId);
+        assertThat(second.getChanges()).isEmpty();
+        assertThat(second.getNextCursor()).isEqualTo(first.getNextCursor());
+    }
+
+    // база общая для всех тестов: начинаем с конца того, что в ней уже есть
+    private String drain() {
+        String cursor = null;
+        OrderChangesResponse page;
+        do {
+            page = orderService.getChanges(cursor, 1000, ADMIN);
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+        return cursor;
+    }
+
+    private Long insertOrder() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO orders (user_id, status, total_price, deleted, created_at, updated_at)
+                VALUES (49, 'NEW', 10.00, false, ?, ?) RETURNING id
+                """, Long.class, now, now);
+    }
+
+    private void insertLine(Long orderId, LocalDateTime orderCreatedAt, Long itemId) {
+        jdbcTemplate.update("""
+                INSERT INTO order_items (order_id, order_created_at, item_id, quantity, created_at, updated_at)
+                VALUES (?, ?, ?, 1, now(), now())
+                """, orderId, Timestamp.valueOf(orderCreatedAt), itemId);
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+
+    private static void execute(Connection connection, String sql, Long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, id);
+            statement.executeUpdate();
+        }
+    }
+
+    private static List<Long> idsOf(OrderChangesResponse response) {
+        return response.getChanges().stream().map(OrderChangeDto::getId).toList();
+    }
+}
@@ -0,0 +1,80 @@
+package com.services;
+
+import com.cache.OrderCacheInvalidator;
+import com.cache.OrderNearCache;
+import com.checker.AccessChecker;
+import com.dtos.request.OrderReadOptions;
+import com.dtos.request.OrderSearchFilter;
+import com.mappers.OrderItemMapper;
+import com.mappers.OrderMapper;
+import com.repositories.ItemRep;
+import com.repositories.OrderCountEstimator;
+import com.repositories.OrderRep;
+import com.routing.ShardRouter;
+import com.routing.ShardTemplate;
+import com.trending.TopItemsTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceGetAllOrdersTest {
+
+    private static final OrderSearchFilter INVERTED_TOTALS = OrderSearchFilter.builder()
+            .minTotal(new BigDecimal("100.00"))
+            .maxTotal(new BigDecimal("1.00"))
+            .build();
+
+    @Mock private OrderRep orderRepository;
+    @Mock private ItemRep itemRepository;
+    @Mock private OrderMapper mapper;
+    @Mock private UserServiceClient userServiceClient;
+    @Mock private OrderItemMapper orderItemMapper;
+    @Mock private OrderCalculationService orderCalculationService;
+    @Mock private OrderNearCache orderNearCache;
+    @Mock private OrderCacheInvalidator orderCacheInvalidator;
+    @Mock private OrderCountEstimator orderCountEstimator;
+    @Mock private TopItemsTracker topItemsTracker;
+    @Mock private ShardTemplate shardTemplate;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        ShardRouter shardRouter = new ShardRouter(false, new String[0], 16, 0, 0);
+        orderService = new OrderService(orderRepository, itemRepository, mapper, userServiceClient, new AccessChecker(),
+                orderItemMapper, orderCalculationService, orderNearCache, orderCacheInvalidator, orderCountEstimator,
+                topItemsTracker, shardRouter, shardTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderService.shutdownUserLookups();
+    }
+
+    @Test
+    void nonAdminGetsForbiddenEvenForAnInvalidFilter() {
+        assertThatThrownBy(() -> orderService.getAllOrders(INVERTED_TOTALS, PageRequest.of(0, 10), 7L,
+                Set.of("ROLE_USER"), OrderReadOptions.FULL))
+                .isInstanceOf(SecurityException.class);
+
+        verifyNoInteractions(orderRepository, orderCountEstimator);
+    }
+
+    @Test
+    void adminGetsValidationErrorForAnInvalidFilter() {
+        assertThatThrownBy(() -> orderService.getAllOrders(INVERTED_TOTALS, PageRequest.of(0, 10), 1L,
+                Set.of("ROLE_ADMIN"), OrderReadOptions.FULL))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,133 @@
+package com.services;
+
+import com.cache.OrderCacheInvalidator;
+import com.cache.OrderNearCache;
+import com.checker.AccessChecker;
+import com.dtos.UserInfoDto;
+import com.dtos.request.OrderReadOptions;
+import com.dtos.response.OrderDto;
+import com.dtos.response.OrderLookupResult;
+import com.entities.Order;
+import com.enums.LookupStatus;
+import com.mappers.OrderItemMapper;
+import com.mappers.OrderMapper;
+import com.repositories.ItemRep;
+import com.repositories.OrderCountEstimator;
+import com.repositories.OrderRep;
+import com.routing.ShardRouter;
+import com.routing.ShardTemplate;
+import com.trending.TopItemsTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderServiceLookupTest {
+
+    private static final Long OWNER_ID = 7L;
+    private static final Set<String> USER = Set.of("ROLE_USER");
+    private static final Set<String> ADMIN = Set.of("ROLE_ADMIN");
+    private static final int USER_CONCURRENCY = 4;
+
+    @Mock private OrderRep orderRepository;
+    @Mock private ItemRep itemRepository;
+    @Mock private OrderMapper mapper;
+    @Mock private UserServiceClient userServiceClient;
+    @Mock private OrderItemMapper orderItemMapper;
+    @Mock private OrderCalculationService orderCalculationService;
+    @Mock private OrderNearCache orderNearCache;
+    @Mock private OrderCacheInvalidator orderCacheInvalidator;
+    @Mock private OrderCountEstimator orderCountEstimator;
+    @Mock private TopItemsTracker topItemsTracker;
+    @Mock private ShardTemplate shardTemplate;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        ShardRouter shardRouter = new ShardRouter(false, new String[0], 16, 0, 0);
+        orderService = new OrderService(orderRepository, itemRepository, mapper, userServiceClient, new AccessChecker(),
+                orderItemMapper, orderCalculationService, orderNearCache, orderCacheInvalidator, orderCountEstimator,
+                topItemsTracker, shardRouter, shardTemplate);
+        ReflectionTestUtils.setField(orderService, "maxLookupIds", 500);
+        ReflectionTestUtils.setField(orderService, "lookupUserConcurrency", USER_CONCURRENCY);
+
+        when(shardTemplate.read(anyInt(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        when(mapper.toDtoWithoutItems(any(Order.class))).thenAnswer(invocation -> {
+            OrderDto dto = new OrderDto();
+            dto.setId(((Order) invocation.getArgument(0)).getId());
+            return dto;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderService.shutdownUserLookups();
+    }
+
+    @Test
+    void someoneElsesOrderLooksExactlyLikeAMissingOne() {
+        when(orderRepository.findAllByIdInAndDeletedFalse(any()))
+                .thenReturn(List.of(order(1L, OWNER_ID), order(2L, 99L)));
+
+        List<OrderLookupResult> results = orderService.lookupOrders(List.of(1L, 2L, 3L), OWNER_ID, USER,
+                new OrderReadOptions(false, false));
+
+        assertThat(results).extracting(OrderLookupResult::getStatus)
+                .containsExactly(LookupStatus.FOUND, LookupStatus.NOT_FOUND, LookupStatus.NOT_FOUND);
+        assertThat(results.get(1)).isEqualTo(new OrderLookupResult(2L, LookupStatus.NOT_FOUND, null));
+    }
+
+    @Test
+    void ownerLookupsAreBoundedPerRequest() {
+        List<Order> orders = new ArrayList<>();
+        LongStream.rangeClosed(1, 40).forEach(id -> orders.add(order(id, 1000 + id)));
+        when(orderRepository.findAllByIdInAndDeletedFalse(any())).thenReturn(orders);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(userServiceClient.getUserByIdForAdminList(anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } finally {
+                running.decrementAndGet();
+            }
+            return UserInfoDto.builder().id(invocation.getArgument(0)).build();
+        });
+
+        List<OrderLookupResult> results = orderService.lookupOrders(orders.stream().map(Order::getId).toList(), 1L, ADMIN,
+                new OrderReadOptions(true, false));
+
+        assertThat(results).allMatch(result -> result.getStatus() == LookupStatus.FOUND
+                && result.getResult().getUser() != null);
+        assertThat(maxRunning.get()).isBetween(1, USER_CONCURRENCY);
+    }
+
+    private static Order order(Long id, Long userId) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(userId);
+        return order;
+    }
+}
@@ -0,0 +1,149 @@
+package com.services;
+
+import com.cache.OrderCacheInvalidator;
+import com.cache.OrderNearCache;
+import com.checker.AccessChecker;
+import com.dtos.UserInfoDto;
+import com.entities.Order;
+import com.enums.OrderStatus;
+import com.mappers.OrderItemMapper;
+import com.mappers.OrderMapper;
+import com.repositories.ItemRep;
+import com.repositories.OrderCountEstimator;
+import com.repositories.OrderRep;
+import com.routing.ShardRouter;
+import com.routing.ShardTemplate;
+import com.trending.TopItemsTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceUpdateStatusTest {
+
+    private static final Long ORDER_ID = 10L;
+    private static final Long OWNER_ID = 7L;
+    private static final Long ADMIN_ID = 1L;
+    private static final Set<String> ADMIN = Set.of("ROLE_ADMIN");
+
+    @Mock private OrderRep orderRepository;
+    @Mock private ItemRep itemRepository;
+    @Mock private OrderMapper mapper;
+    @Mock private UserServiceClient userServiceClient;
+    @Mock private OrderItemMapper orderItemMapper;
+    @Mock private OrderCalculationService orderCalculationService;
+    @Mock private OrderNearCache orderNearCache;
+    @Mock private OrderCacheInvalidator orderCacheInvalidator;
+    @Mock private OrderCountEstimator orderCountEstimator;
+    @Mock private TopItemsTracker topItemsTracker;
+    @Mock private ShardTemplate shardTemplate;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        ShardRouter shardRouter = new ShardRouter(false, new String[0], 16, 0, 0);
+        orderService = new OrderService(orderRepository, itemRepository, mapper, userServiceClient, new AccessChecker(),
+                orderItemMapper, orderCalculationService, orderNearCache, orderCacheInvalidator, orderCountEstimator,
+                topItemsTracker, shardRouter, shardTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderService.shutdownUserLookups();
+    }
+
+    @Test
+    void ownerIsLookedUpByIdCapturedBeforeTheFork() {
+        Order order = newOrder();
+        when(orderRepository.findActiveByIdForUpdate(ORDER_ID)).thenReturn(Optional.of(order));
+        when(userServiceClient.getUserById(eq(OWNER_ID), eq(ADMIN_ID), any()))
+                .thenReturn(UserInfoDto.builder().id(OWNER_ID).build());
+
+        orderService.updateStatus(ORDER_ID, OrderStatus.PROCESSING, ADMIN_ID, ADMIN);
+
+        verify(userServiceClient).getUserById(OWNER_ID, ADMIN_ID, ADMIN);
+        verify(orderCacheInvalidator).invalidateAfterCommit(order);
+    }
+
+    @Test
+    void failedOwnerLookupFailsTheUpdateWithoutInvalidation() {
+        when(orderRepository.findActiveByIdForUpdate(ORDER_ID)).thenReturn(Optional.of(newOrder()));
+        when(userServiceClient.getUserById(anyLong(), anyLong(), any()))
+                .thenThrow(new RuntimeException("UserService error (status 503)"));
+
+        assertThatThrownBy(() -> orderService.updateStatus(ORDER_ID, OrderStatus.PROCESSING, ADMIN_ID, ADMIN))
+                .hasMessageContaining("status 503");
+
+        verify(orderCacheInvalidator, never()).invalidateAfterCommit(any(Order.class));
+    }
+
+    @Test
+    void missingOrderIsNotFoundEvenForNonAdmin() {
+        when(orderRepository.findActiveByIdForUpdate(ORDER_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> orderService.updateStatus(ORDER_ID, OrderStatus.PROCESSING, OWNER_ID, Set.of("ROLE_USER")))
+                .isInstanceOf(NoSuchElementException.class);
+
+        verifyNoInteractions(userServiceClient);
+    }
+
+    @Test
+    void nonAdminIsRejectedForAnExistingOrderWithoutWriting() {
+        when(orderRepository.findActiveByIdForUpdate(ORDER_ID)).thenReturn(Optional.of(newOrder()));
+
+        assertThatThrownBy(() -> orderService.updateStatus(ORDER_ID, OrderStatus.PROCESSING, OWNER_ID, Set.of("ROLE_USER")))
+                .isInstanceOf(SecurityException.class);
+
+        verify(orderRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(userServiceClient);
+    }
+
+    @Test
+    void internalUpdateNeitherImpersonatesAnAdminNorCallsUserService() {
+        Order order = newOrder();
+        when(orderRepository.findActiveByIdForUpdate(ORDER_ID)).thenReturn(Optional.of(order));
+
+        orderService.updateStatusInternal(ORDER_ID, OrderStatus.CANCELLED);
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        verify(orderCacheInvalidator).invalidateAfterCommit(order);
+        verifyNoInteractions(userServiceClient);
+    }
+
+    @Test
+    void internalUpdateStillEnforcesTheTransitions() {
+        Order order = newOrder();
+        order.setStatus(OrderStatus.CANCELLED);
+        when(orderRepository.findActiveByIdForUpdate(ORDER_ID)).thenReturn(Optional.of(order));
+
+        assertThatThrownBy(() -> orderService.updateStatusInternal(ORDER_ID, OrderStatus.COMPLETED))
+                .isInstanceOf(IllegalStateException.class);
+        verify(orderRepository, never()).saveAndFlush(any());
+    }
+
+    private static Order newOrder() {
+        Order order = new Order();
+        order.setId(ORDER_ID);
+        order.setUserId(OWNER_ID);
+        order.setStatus(OrderStatus.NEW);
+        return order;
+    }
+}
@@ -0,0 +1,87 @@
+package com.services;
+
+import com.dtos.UserInfoDto;
+import com.dtos.request.OrderCreateUpdateDto;
+import com.dtos.response.OrderDto;
+import com.dtos.response.OrderItemDto;
+import com.enums.OrderStatus;
+import com.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// Версия заказа (orders.version) обязана расти при любой смене того, что входит в ответ, независимо от часов
+class OrderServiceVersionTest extends PostgresIntegrationTest {
+
+    private static final Long USER_ID = 42L;
+    private static final Set<String> USER = Set.of("ROLE_USER");
+
+    @Autowired
+    private OrderService orderService;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    private Long firstItemId;
+    private Long secondItemId;
+
+    @BeforeEach
+    void setUp() {
+        when(userServiceClient.getUserById(anyLong(), anyLong(), any()))
+                .thenReturn(UserInfoDto.builder().id(USER_ID).active(true).build());
+
+        firstItemId = insertItem("version-a", "10.00");
+        secondItemId = insertItem("version-b", "10.00");
+    }
+
+    @Test
+    void etagChangesWhenLinesAreSwappedWithTheSameTotal() {
+        OrderDto created = orderService.createOrder(orderOf(firstItemId), USER_ID, USER).getOrder();
+        String before = orderService.getOrderETag(created.getId(), USER_ID, USER);
+
+        OrderDto updated = orderService.updateOrder(created.getId(), orderOf(secondItemId), USER_ID, USER).getOrder();
+        String after = orderService.getOrderETag(created.getId(), USER_ID, USER);
+
+        assertThat(updated.getTotalPrice()).isEqualByComparingTo(created.getTotalPrice());
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    void nearCacheDropsTheOrderWhenLinesAreSwappedWithTheSameTotal() {
+        OrderDto created = orderService.createOrder(orderOf(firstItemId), USER_ID, USER).getOrder();
+        // первое чтение кладёт заказ в near cache
+        orderService.getOrderById(created.getId(), USER_ID, USER);
+
+        orderService.updateOrder(created.getId(), orderOf(secondItemId), USER_ID, USER);
+        OrderDto reread = orderService.getOrderById(created.getId(), USER_ID, USER).getOrder();
+
+        assertThat(reread.getOrderItems()).extracting(OrderItemDto::getItemId).containsExactly(secondItemId);
+    }
+
+    @Test
+    void versionGrowsEvenWhenUpdatedAtGoesBackwards() {
+        OrderDto created = orderService.createOrder(orderOf(firstItemId), USER_ID, USER).getOrder();
+        // прошлую запись сделала нода с убежавшими вперёд часами
+        jdbcTemplate.update("UPDATE orders SET updated_at = updated_at + interval '1 hour' WHERE id = ?", created.getId());
+        long before = orderService.getOrderVersion(created.getId(), USER_ID, USER);
+
+        orderService.updateStatusInternal(created.getId(), OrderStatus.PROCESSING);
+
+        assertThat(orderService.getOrderVersion(created.getId(), USER_ID, USER)).isGreaterThan(before);
+    }
+
+    private static OrderCreateUpdateDto orderOf(Long itemId) {
+        return OrderCreateUpdateDto.builder()
+                .orderItems(List.of(OrderItemDto.builder().itemId(itemId).quantity(1).build()))
+                .build();
+    }
+}
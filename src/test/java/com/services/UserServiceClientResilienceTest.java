@@ -0,0 +1,106 @@
+package com.services;
+
+import com.dtos.UserInfoDto;
+import com.support.PostgresIntegrationTest;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Настоящие аспекты Resilience4j против UserService, который всегда отвечает 500
+class UserServiceClientResilienceTest extends PostgresIntegrationTest {
+
+    private static final Set<String> ADMIN = Set.of("ROLE_ADMIN");
+    private static final HttpServer FAILING_USER_SERVICE = startFailingUserService();
+
+    @Autowired
+    private UserServiceClient userServiceClient;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    private CircuitBreaker circuitBreaker;
+
+    @DynamicPropertySource
+    static void userServiceProperties(DynamicPropertyRegistry registry) {
+        registry.add("user.service.base-url",
+                () -> "http://localhost:" + FAILING_USER_SERVICE.getAddress().getPort() + "/users");
+    }
+
+    @AfterAll
+    static void stopUserService() {
+        FAILING_USER_SERVICE.stop(0);
+    }
+
+    @BeforeEach
+    void resetBreaker() {
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("userServiceCircuitBreaker");
+        circuitBreaker.reset();
+    }
+
+    @Test
+    void failuresReachTheBreakerAndOpenIt() {
+        int window = circuitBreaker.getCircuitBreakerConfig().getSlidingWindowSize();
+
+        for (int i = 0; i < window; i++) {
+            UserInfoDto user = userServiceClient.getUserById(1L, 1L, ADMIN);
+            assertThat(user.getActive()).isFalse(); // fallback
+        }
+
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isPositive();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void fullBulkheadGetsTheFallbackWithoutCountingAsFailure() {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(UserServiceClient.ADMIN_LIST);
+        int permits = bulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+        for (int i = 0; i < permits; i++) {
+            bulkhead.acquirePermission();
+        }
+        try {
+            UserInfoDto user = userServiceClient.getUserByIdForAdminList(1L, 1L, ADMIN);
+
+            assertThat(user.getEmail()).isEqualTo("unavailable");
+            assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isZero();
+        } finally {
+            for (int i = 0; i < permits; i++) {
+                bulkhead.onComplete();
+            }
+        }
+    }
+
+    private static HttpServer startFailingUserService() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                byte[] body = "boom".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(500, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
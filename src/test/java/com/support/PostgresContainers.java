@@ -0,0 +1,24 @@
+package com.support;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Контейнер на имя и на весь прогон: поднимается при первом обращении, гасит его Ryuk после JVM
+public final class PostgresContainers {
+
+    private static final String IMAGE = "postgres:15-alpine";
+    private static final Map<String, PostgreSQLContainer<?>> CONTAINERS = new ConcurrentHashMap<>();
+
+    private PostgresContainers() {
+    }
+
+    public static PostgreSQLContainer<?> get(String name) {
+        return CONTAINERS.computeIfAbsent(name, key -> {
+            PostgreSQLContainer<?> container = new PostgreSQLContainer<>(IMAGE);
+            container.start();
+            return container;
+        });
+    }
+}
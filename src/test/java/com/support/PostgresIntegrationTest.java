@@ -0,0 +1,53 @@
+package com.support;
+
+import com.cache.OrderInvalidationEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+// Полный контекст на настоящем PostgreSQL (партиции, триггеры, native SQL), миграции - Liquibase.
+// Kafka нет: рассылка инвалидаций кэша заглушена, UserServiceClient тесты мокают сами
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class PostgresIntegrationTest {
+
+    protected static final PostgreSQLContainer<?> POSTGRES = PostgresContainers.get("primary");
+
+    @MockBean(name = "orderInvalidationKafkaTemplate")
+    protected KafkaTemplate<String, OrderInvalidationEvent> orderInvalidationKafkaTemplate;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @BeforeEach
+    void stubInvalidationBroadcast() {
+        when(orderInvalidationKafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    protected Long insertItem(String name, String price) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO items (name, price, created_at, updated_at) VALUES (?, ?::numeric, now(), now()) RETURNING id",
+                Long.class, name, price);
+    }
+}
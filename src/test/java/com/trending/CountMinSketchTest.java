@@ -0,0 +1,68 @@
+package com.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimateIsNeverBelowTheTrueCount() {
+        // ключей больше, чем счётчиков в строке: коллизии гарантированы
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        LongStream.range(0, 1_000).forEach(key -> sketch.add(key, key % 7 + 1));
+
+        LongStream.range(0, 1_000).forEach(key ->
+                assertThat(sketch.estimate(key)).isGreaterThanOrEqualTo(key % 7 + 1));
+    }
+
+    @Test
+    void addReturnsTheEstimateAfterTheAdd() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+
+        sketch.add(42L, 3);
+        long estimate = sketch.add(42L, 2);
+
+        assertThat(estimate).isEqualTo(sketch.estimate(42L)).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void clearResetsEveryCounter() {
+        CountMinSketch sketch = new CountMinSketch(2, 16);
+        LongStream.range(0, 100).forEach(key -> sketch.add(key, 10));
+
+        sketch.clear();
+
+        LongStream.range(0, 100).forEach(key -> assertThat(sketch.estimate(key)).isZero());
+    }
+
+    @Test
+    void concurrentAddsAreNotLost() throws InterruptedException {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    sketch.add(7L, 1);
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(sketch.estimate(7L)).isEqualTo(80_000);
+    }
+
+    @Test
+    void rejectsInvalidDimensions() {
+        assertThatThrownBy(() -> new CountMinSketch(0, 16)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountMinSketch(9, 16)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountMinSketch(4, 100)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Время передаётся явно: корзины по 1000 мс, окно из 3 корзин
+class SlidingWindowCounterTest {
+
+    private static final long BUCKET = 1_000;
+    private static final int CAPACITY = 10;
+
+    private final SlidingWindowCounter counter = new SlidingWindowCounter(3, BUCKET, 4, 1024, CAPACITY);
+
+    @Test
+    void sumsAcrossLiveBuckets() {
+        counter.add(1L, 5, 0);
+        counter.add(1L, 3, BUCKET);
+        counter.add(2L, 4, 2 * BUCKET);
+
+        assertThat(counter.top(10, 2 * BUCKET)).containsExactly(Map.entry(1L, 8L), Map.entry(2L, 4L));
+    }
+
+    @Test
+    void bucketOutsideTheWindowIsIgnored() {
+        counter.add(1L, 5, 0);
+        counter.add(2L, 1, BUCKET);
+
+        // корзина эпохи 0 ушла из окна, но ещё не переиспользована
+        assertThat(counter.top(10, 3 * BUCKET)).containsExactly(Map.entry(2L, 1L));
+        assertThat(counter.top(10, 4 * BUCKET)).isEmpty();
+    }
+
+    @Test
+    void reusedBucketStartsFromZero() {
+        counter.add(1L, 5, 0);
+
+        // та же ячейка кольца, следующий круг: счётчики и кандидаты прошлого круга сброшены
+        counter.add(2L, 1, 3 * BUCKET);
+
+        assertThat(counter.top(10, 3 * BUCKET)).containsExactly(Map.entry(2L, 1L));
+    }
+
+    @Test
+    void limitCutsTheSortedList() {
+        for (long key = 1; key <= 5; key++) {
+            counter.add(key, key, 0);
+        }
+
+        assertThat(counter.top(2, 0)).extracting(Map.Entry::getKey).containsExactly(5L, 4L);
+    }
+
+    @Test
+    void candidatesAreTrimmedUnderConcurrentAddsAndHeavyKeysSurvive() throws InterruptedException {
+        for (long key = 0; key < CAPACITY; key++) {
+            counter.add(key, 1_000, 0);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            long from = 1_000 + thread * 1_000L;
+            pool.execute(() -> {
+                for (long key = from; key < from + 1_000; key++) {
+                    counter.add(key, 1, 0);
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        // последний add без конкуренции: подрезка гарантированно отработает, если кандидатов больше 2x
+        counter.add(999_999L, 1, 0);
+
+        List<Map.Entry<Long, Long>> all = counter.top(Integer.MAX_VALUE, 0);
+        assertThat(all).hasSizeLessThanOrEqualTo(2 * CAPACITY);
+        assertThat(all.subList(0, CAPACITY)).extracting(Map.Entry::getKey)
+                .containsExactlyInAnyOrder(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+    }
+}
@@ -0,0 +1,61 @@
+package com.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TopItemsTrackerTest {
+
+    private static final int CAPACITY = 20;
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+    private final TopItemsTracker tracker = new TopItemsTracker(4, 1024, CAPACITY, now::get);
+
+    @Test
+    void recordsImmediatelyOutsideATransaction() {
+        tracker.recordAfterCommit(Map.of(1L, 3L, 2L, 5L));
+
+        assertThat(tracker.top(TrendingWindow.HOUR, 10)).containsExactly(Map.entry(2L, 5L), Map.entry(1L, 3L));
+        assertThat(tracker.top(TrendingWindow.DAY, 10)).containsExactly(Map.entry(2L, 5L), Map.entry(1L, 3L));
+    }
+
+    @Test
+    void hourWindowExpiresWhileTheDayStillCounts() {
+        tracker.recordAfterCommit(Map.of(1L, 3L));
+
+        now.addAndGet(TimeUnit.MINUTES.toMillis(61));
+
+        assertThat(tracker.top(TrendingWindow.HOUR, 10)).isEmpty();
+        assertThat(tracker.top(TrendingWindow.DAY, 10)).containsExactly(Map.entry(1L, 3L));
+
+        now.addAndGet(TimeUnit.HOURS.toMillis(24));
+        assertThat(tracker.top(TrendingWindow.DAY, 10)).isEmpty();
+    }
+
+    @Test
+    void nonPositiveQuantitiesAreIgnored() {
+        tracker.recordAfterCommit(Map.of(1L, 0L, 2L, -4L));
+
+        assertThat(tracker.top(TrendingWindow.HOUR, 10)).isEmpty();
+    }
+
+    @Test
+    void limitIsBoundedByCandidateCapacity() {
+        assertThat(tracker.top(TrendingWindow.HOUR, CAPACITY)).isEmpty();
+        assertThatThrownBy(() -> tracker.top(TrendingWindow.HOUR, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tracker.top(TrendingWindow.HOUR, CAPACITY + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void increaseCountsOnlyWhatWasAdded() {
+        Map<Long, Long> increase = TopItemsTracker.increaseOf(Map.of(1L, 2L, 2L, 5L), Map.of(1L, 4L, 2L, 1L, 3L, 1L));
+
+        assertThat(increase).containsOnly(Map.entry(1L, 2L), Map.entry(3L, 1L));
+    }
+}
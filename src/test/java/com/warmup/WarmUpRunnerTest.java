@@ -0,0 +1,85 @@
+package com.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.routing.ReplicaRoutingDataSource;
+import com.routing.ReplicaSelector;
+import com.routing.ShardRoutingDataSource;
+import com.services.ItemService;
+import com.services.OrderService;
+import com.services.UserServiceClient;
+import com.support.PostgresContainers;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+// Прогрев пула должен дойти до каждого Hikari за LazyConnectionDataSourceProxy, а не до одного шарда 0
+class WarmUpRunnerTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = PostgresContainers.get("primary");
+    private static final int CONNECTIONS = 3;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @AfterEach
+    void closePools() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void everyShardPoolIsFilled() {
+        HikariDataSource shard0 = pool();
+        HikariDataSource shard1 = pool();
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(List.of(shard0, shard1));
+        routing.afterPropertiesSet();
+
+        runnerOver(new LazyConnectionDataSourceProxy(routing)).fillConnectionPools();
+
+        assertThat(List.of(shard0, shard1)).allSatisfy(pool ->
+                assertThat(pool.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(CONNECTIONS));
+    }
+
+    @Test
+    void replicaPoolsAreFilledToo() {
+        HikariDataSource primary = pool();
+        HikariDataSource replica = pool();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new ReplicaSelector(List.of(), 1000));
+        routing.setTargetDataSources(Map.of(ReplicaRoutingDataSource.PRIMARY, primary, "replica-0", replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        runnerOver(new LazyConnectionDataSourceProxy(routing)).fillConnectionPools();
+
+        assertThat(List.of(primary, replica)).allSatisfy(pool ->
+                assertThat(pool.getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(CONNECTIONS));
+    }
+
+    // minimumIdle = 1: без прогрева Hikari держал бы одно соединение
+    private HikariDataSource pool() {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(POSTGRES.getJdbcUrl());
+        pool.setUsername(POSTGRES.getUsername());
+        pool.setPassword(POSTGRES.getPassword());
+        pool.setMinimumIdle(1);
+        pool.setMaximumPoolSize(CONNECTIONS + 2);
+        pools.add(pool);
+        return pool;
+    }
+
+    private static WarmUpRunner runnerOver(DataSource dataSource) {
+        WarmUpRunner runner = new WarmUpRunner(dataSource, mock(UserServiceClient.class), mock(OrderService.class),
+                mock(ItemService.class), new ObjectMapper(), mock(WarmUpHealthIndicator.class));
+        ReflectionTestUtils.setField(runner, "connections", CONNECTIONS);
+        return runner;
+    }
+}